@@ -2,6 +2,7 @@ package top.chiloven.xamlsorter;
 
 import atlantafx.base.theme.CupertinoDark;
 import atlantafx.base.theme.CupertinoLight;
+import top.chiloven.xamlsorter.modules.AutosaveManager;
 import top.chiloven.xamlsorter.modules.DataOperationHelper;
 import top.chiloven.xamlsorter.modules.I18n;
 import top.chiloven.xamlsorter.modules.PreferencesManager;
@@ -11,6 +12,7 @@ import top.chiloven.xamlsorter.utils.RestartHelper;
 import top.chiloven.xamlsorter.utils.ShowAlert;
 import top.chiloven.xamlsorter.utils.TaskExecutorService;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
@@ -98,6 +100,8 @@ public class Main extends Application {
                     event.consume();
                 } else {
                     PreferencesManager.removeThemeChangeListener(Main::applyTheme);
+                    AutosaveManager.stop();
+                    AutosaveManager.discardRecovery();
                 }
             });
 
@@ -114,6 +118,9 @@ public class Main extends Application {
             primaryStage.setScene(scene);
             primaryStage.show();
             logger.info("Application UI loaded successfully");
+
+            AutosaveManager.start(mainPage);
+            Platform.runLater(() -> AutosaveManager.offerRestore(mainPage));
         } catch (Exception e) {
             logger.fatal("Error loading UI", e);
             ShowAlert.error(
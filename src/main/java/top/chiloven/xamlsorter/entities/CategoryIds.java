@@ -0,0 +1,155 @@
+package top.chiloven.xamlsorter.entities;
+
+import top.chiloven.xamlsorter.utils.StringPool;
+
+import java.util.Arrays;
+
+import static top.chiloven.xamlsorter.modules.I18n.getLang;
+
+/**
+ * Interned category names and the single place where a key's category is derived.
+ * Every category name gets a small int id that never changes while the application runs, so entries can store
+ * the id and grouping compares ints instead of strings.
+ * <p>
+ * A key's category is the part before its first '.', or the localized "uncategorized" name if it has none.
+ * {@link #resolve(String)} finds the id without splitting the key or allocating a substring once the category
+ * is known. All methods are thread-safe.
+ */
+public final class CategoryIds {
+    /**
+     * The id of a null category.
+     */
+    public static final int NONE = -1;
+
+    private static final Object lock = new Object();
+    private static volatile String[] names = new String[16];
+    private static volatile int[] slots = emptySlots(64);
+    private static int count = 0;
+    private static volatile int uncategorized = NONE;
+
+    private CategoryIds() {
+    }
+
+    private static int[] emptySlots(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, NONE);
+        return table;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Get the id of the category of a key.
+     *
+     * @param key the entry key, may be null
+     * @return the category id
+     */
+    public static int resolve(String key) {
+        int dot = key != null ? key.indexOf('.') : -1;
+        if (dot < 0) return uncategorizedId();
+
+        int hash = 0;
+        for (int i = 0; i < dot; i++) {
+            hash = 31 * hash + key.charAt(i);
+        }
+        int id = find(key, dot, hash);
+        return id != NONE ? id : idOf(key.substring(0, dot));
+    }
+
+    /**
+     * Get the category name of a key.
+     *
+     * @param key the entry key, may be null
+     * @return the category name
+     */
+    public static String categoryOf(String key) {
+        return nameOf(resolve(key));
+    }
+
+    /**
+     * Get the id of a category name, assigning a new one if the name is not known yet.
+     *
+     * @param name the category name, may be null
+     * @return the category id, or {@link #NONE} for null
+     */
+    public static int idOf(String name) {
+        if (name == null) return NONE;
+        int id = find(name, name.length(), name.hashCode());
+        if (id != NONE) return id;
+
+        synchronized (lock) {
+            id = find(name, name.length(), name.hashCode());
+            if (id != NONE) return id;
+
+            id = count;
+            String[] currentNames = names;
+            if (id == currentNames.length) currentNames = Arrays.copyOf(currentNames, id * 2);
+            currentNames[id] = StringPool.intern(name);
+            names = currentNames;
+            count++;
+
+            int[] table = slots;
+            if (count * 2 > table.length) {
+                table = emptySlots(table.length * 2);
+                for (int i = 0; i < count - 1; i++) insert(table, currentNames[i].hashCode(), i);
+            }
+            insert(table, name.hashCode(), id);
+            slots = table;
+            return id;
+        }
+    }
+
+    /**
+     * Get the name of a category id.
+     *
+     * @param id the category id
+     * @return the category name, or null for {@link #NONE}
+     */
+    public static String nameOf(int id) {
+        return id == NONE ? null : names[id];
+    }
+
+    /**
+     * Get the id of the localized "uncategorized" category.
+     *
+     * @return the category id
+     */
+    public static int uncategorizedId() {
+        int id = uncategorized;
+        if (id == NONE) {
+            id = idOf(getLang("page.main.tree_table.item.uncategorized"));
+            uncategorized = id;
+        }
+        return id;
+    }
+
+    /**
+     * Find the id of the category whose name equals the first {@code length} chars of {@code text}.
+     */
+    private static int find(String text, int length, int hash) {
+        int[] table = slots;
+        String[] currentNames = names;
+        int mask = table.length - 1;
+        for (int i = mix(hash) & mask; ; i = (i + 1) & mask) {
+            int id = table[i];
+            if (id == NONE) return NONE;
+            if (id >= currentNames.length || currentNames[id] == null) {
+                // Seen a slot before the name it points to was published; look again under the lock
+                synchronized (lock) {
+                    return find(text, length, hash);
+                }
+            }
+            String name = currentNames[id];
+            if (name.length() == length && text.regionMatches(0, name, 0, length)) return id;
+        }
+    }
+
+    private static void insert(int[] table, int hash, int id) {
+        int mask = table.length - 1;
+        int i = mix(hash) & mask;
+        while (table[i] != NONE) i = (i + 1) & mask;
+        table[i] = id;
+    }
+}
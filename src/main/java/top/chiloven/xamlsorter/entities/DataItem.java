@@ -1,17 +1,39 @@
 package top.chiloven.xamlsorter.entities;
 
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
+import java.util.Objects;
+
 /**
  * Represents a data item with a category, key, original text, and translated text.
  * This class is used to store and manage translation data in the application.
+ * <p>
+ * The category is held as an interned {@link CategoryIds} id.
+ * A data item is either detached, keeping its values in plain fields, or bound to a row of an
+ * {@link EntryTable}, in which case it is a thin view that reads and writes the table's columns.
+ * The JavaFX property of a field is only created when it is first requested, e.g. by a table cell;
+ * most items of a large project are never displayed and so never pay for their properties.
+ * <p>
+ * Properties are only notified on the JavaFX Application Thread. A bound item changed from another thread,
+ * or inside an {@link EntryTable#batch(Runnable)}, writes to the table directly, and its properties catch up
+ * when the store calls {@link #syncProperties()} on the JavaFX Application Thread.
  */
 public class DataItem {
-    private final StringProperty category;
-    private final StringProperty key;
-    private final StringProperty originalText;
-    private final StringProperty translatedText;
+    private int categoryId;
+    private String key;
+    private String originalText;
+    private String translatedText;
+
+    private EntryTable table;
+    private int row = -1;
+
+    private StringProperty categoryProperty;
+    private StringProperty keyProperty;
+    private StringProperty originalTextProperty;
+    private StringProperty translatedTextProperty;
+    private boolean syncing = false;
 
     // =========================
     // Constructor
@@ -26,10 +48,93 @@ public class DataItem {
      * @param translatedText the translated text of the data item
      */
     public DataItem(String category, String key, String originalText, String translatedText) {
-        this.category = new SimpleStringProperty(category);
-        this.key = new SimpleStringProperty(key);
-        this.originalText = new SimpleStringProperty(originalText);
-        this.translatedText = new SimpleStringProperty(translatedText);
+        this.categoryId = CategoryIds.idOf(category);
+        this.key = key;
+        this.originalText = originalText;
+        this.translatedText = translatedText;
+    }
+
+    /**
+     * Create a view over a row of an entry table.
+     *
+     * @param table the table holding the values
+     * @param row   the row id
+     */
+    DataItem(EntryTable table, int row) {
+        this.table = table;
+        this.row = row;
+    }
+
+    /**
+     * Create a detached copy of this data item with the same values.
+     *
+     * @return a new DataItem holding the current values
+     */
+    public DataItem copy() {
+        return new DataItem(getCategory(), getKey(), getOriginalText(), getTranslatedText());
+    }
+
+    // =========================
+    // Table binding
+    // =========================
+
+    /**
+     * Get the entry table this item is a view of.
+     *
+     * @return the table, or null if the item is detached
+     */
+    public EntryTable getTable() {
+        return table;
+    }
+
+    /**
+     * Get the row of the entry table this item is a view of.
+     *
+     * @return the row id, or -1 if the item is detached
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Turn this item into a view of a table row. The row must already hold the item's values.
+     *
+     * @param table the table
+     * @param row   the row id
+     */
+    void bind(EntryTable table, int row) {
+        this.table = table;
+        this.row = row;
+        this.categoryId = CategoryIds.NONE;
+        this.key = null;
+        this.originalText = null;
+        this.translatedText = null;
+    }
+
+    /**
+     * Copy the values out of the table row and detach this item from the table.
+     */
+    void unbind() {
+        this.categoryId = table.getCategoryId(row);
+        this.key = table.get(row, EntryTable.KEY);
+        this.originalText = table.get(row, EntryTable.ORIGINAL_TEXT);
+        this.translatedText = table.get(row, EntryTable.TRANSLATED_TEXT);
+        this.table = null;
+        this.row = -1;
+    }
+
+    /**
+     * Check whether a change must bypass the properties, which may only be notified on the JavaFX Application
+     * Thread and not during a batch.
+     */
+    private boolean deferred() {
+        EntryTable t = table;
+        return t != null && (t.isBatching() || !Platform.isFxApplicationThread());
+    }
+
+    private String read(int column, String detachedValue) {
+        EntryTable t = table;
+        return t != null ? t.get(row, column) : detachedValue;
     }
 
     /**
@@ -38,7 +143,17 @@ public class DataItem {
      * @return the category as a String
      */
     public String getCategory() {
-        return category.get();
+        return CategoryIds.nameOf(getCategoryId());
+    }
+
+    /**
+     * Get the interned id of the category of the data item.
+     *
+     * @return the {@link CategoryIds} id
+     */
+    public int getCategoryId() {
+        EntryTable t = table;
+        return t != null ? t.getCategoryId(row) : categoryId;
     }
 
     // =========================
@@ -51,7 +166,13 @@ public class DataItem {
      * @param category the category to set
      */
     public void setCategory(String category) {
-        this.category.set(category);
+        if (categoryProperty != null && !deferred()) categoryProperty.set(category);
+        else storeCategory(category);
+    }
+
+    private void storeCategory(String category) {
+        if (table != null) table.set(row, EntryTable.CATEGORY, category);
+        else this.categoryId = CategoryIds.idOf(category);
     }
 
     /**
@@ -60,7 +181,7 @@ public class DataItem {
      * @return the key as a String
      */
     public String getKey() {
-        return key.get();
+        return read(EntryTable.KEY, key);
     }
 
     /**
@@ -69,7 +190,13 @@ public class DataItem {
      * @param key the key to set as a String
      */
     public void setKey(String key) {
-        this.key.set(key);
+        if (keyProperty != null && !deferred()) keyProperty.set(key);
+        else storeKey(key);
+    }
+
+    private void storeKey(String key) {
+        if (table != null) table.set(row, EntryTable.KEY, key);
+        else this.key = key;
     }
 
     /**
@@ -78,7 +205,7 @@ public class DataItem {
      * @return the original text as a String
      */
     public String getOriginalText() {
-        return originalText.get();
+        return read(EntryTable.ORIGINAL_TEXT, originalText);
     }
 
     /**
@@ -87,7 +214,13 @@ public class DataItem {
      * @param originalText the original text to set as a String
      */
     public void setOriginalText(String originalText) {
-        this.originalText.set(originalText);
+        if (originalTextProperty != null && !deferred()) originalTextProperty.set(originalText);
+        else storeOriginalText(originalText);
+    }
+
+    private void storeOriginalText(String originalText) {
+        if (table != null) table.set(row, EntryTable.ORIGINAL_TEXT, originalText);
+        else this.originalText = originalText;
     }
 
     /**
@@ -96,7 +229,7 @@ public class DataItem {
      * @return the translated text as a String
      */
     public String getTranslatedText() {
-        return translatedText.get();
+        return read(EntryTable.TRANSLATED_TEXT, translatedText);
     }
 
     /**
@@ -105,11 +238,18 @@ public class DataItem {
      * @param translatedText the translated text to set as a String
      */
     public void setTranslatedText(String translatedText) {
-        this.translatedText.set(translatedText);
+        if (translatedTextProperty != null && !deferred()) translatedTextProperty.set(translatedText);
+        else storeTranslatedText(translatedText);
+    }
+
+    private void storeTranslatedText(String translatedText) {
+        if (table != null) table.set(row, EntryTable.TRANSLATED_TEXT, translatedText);
+        else this.translatedText = translatedText;
     }
 
     // =========================
     // Property getter methods for JavaFX binding (if needed)
+    // The property is created on first use; changes to it are written through to the item's storage.
     // =========================
 
     /**
@@ -118,7 +258,13 @@ public class DataItem {
      * @return the category property as a StringProperty
      */
     public StringProperty getCategoryProperty() {
-        return category;
+        if (categoryProperty == null) {
+            categoryProperty = new SimpleStringProperty(getCategory());
+            categoryProperty.addListener((obs, oldValue, newValue) -> {
+                if (!syncing) storeCategory(newValue);
+            });
+        }
+        return categoryProperty;
     }
 
     /**
@@ -127,7 +273,13 @@ public class DataItem {
      * @return the key property as a StringProperty
      */
     public StringProperty getKeyProperty() {
-        return key;
+        if (keyProperty == null) {
+            keyProperty = new SimpleStringProperty(getKey());
+            keyProperty.addListener((obs, oldValue, newValue) -> {
+                if (!syncing) storeKey(newValue);
+            });
+        }
+        return keyProperty;
     }
 
     /**
@@ -136,7 +288,13 @@ public class DataItem {
      * @return the original text property as a StringProperty
      */
     public StringProperty getOriginalTextProperty() {
-        return originalText;
+        if (originalTextProperty == null) {
+            originalTextProperty = new SimpleStringProperty(getOriginalText());
+            originalTextProperty.addListener((obs, oldValue, newValue) -> {
+                if (!syncing) storeOriginalText(newValue);
+            });
+        }
+        return originalTextProperty;
     }
 
     /**
@@ -145,7 +303,43 @@ public class DataItem {
      * @return the translated text property as a StringProperty
      */
     public StringProperty getTranslatedTextProperty() {
-        return translatedText;
+        if (translatedTextProperty == null) {
+            translatedTextProperty = new SimpleStringProperty(getTranslatedText());
+            translatedTextProperty.addListener((obs, oldValue, newValue) -> {
+                if (!syncing) storeTranslatedText(newValue);
+            });
+        }
+        return translatedTextProperty;
+    }
+
+    /**
+     * Check whether any JavaFX property of this item was created, e.g. because it is shown in a table cell.
+     *
+     * @return true if the item has properties
+     */
+    public boolean hasProperties() {
+        return categoryProperty != null || keyProperty != null
+                || originalTextProperty != null || translatedTextProperty != null;
+    }
+
+    /**
+     * Bring the properties that were created back in line with the stored values, e.g. after a batch or a change
+     * made directly on the table. Must be called on the JavaFX Application Thread.
+     */
+    public void syncProperties() {
+        syncing = true;
+        try {
+            if (categoryProperty != null) sync(categoryProperty, getCategory());
+            if (keyProperty != null) sync(keyProperty, getKey());
+            if (originalTextProperty != null) sync(originalTextProperty, getOriginalText());
+            if (translatedTextProperty != null) sync(translatedTextProperty, getTranslatedText());
+        } finally {
+            syncing = false;
+        }
+    }
+
+    private static void sync(StringProperty property, String value) {
+        if (!Objects.equals(property.get(), value)) property.set(value);
     }
 
 }
@@ -0,0 +1,722 @@
+package top.chiloven.xamlsorter.entities;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Column-oriented storage for translation entries.
+ * The category, key, original text and translated text columns are kept in fixed-size chunks of parallel
+ * arrays addressed by an int row id, so bulk operations scan contiguous arrays instead of following one
+ * object per entry, and {@link #rows()} can be processed in parallel. Categories are stored as
+ * {@link CategoryIds} ids.
+ * <p>
+ * A {@link DataItem} bound to a row is a thin view over the columns. Views are only created on request and
+ * cached per row, so every row has at most one. Row ids are never reused: a removed row stays empty until the
+ * table is discarded, so a row id taken from a {@link Snapshot} never points at a different entry later.
+ * The view of a removed row is detached and keeps the values it had.
+ * <p>
+ * In off-heap mode, meant for very large projects, the original and translated text columns only hold handles
+ * into a {@link MappedTextStore}; texts are decoded when they are read, e.g. when a cell is rendered.
+ * <p>
+ * All changes go through a single writer lock, which the owner of the table can share to make a batch of
+ * changes atomic. Reading a value never locks; readers that need a consistent view of many rows, e.g. for
+ * exporting or saving in the background, take an immutable {@link #snapshot()} instead.
+ * <p>
+ * The chunks form a two-level persistent vector. A snapshot shares the current chunks and starts a new version;
+ * the first change of a chunk after that copies the chunk (and the chunk array) instead of writing into the
+ * shared one. Taking a snapshot therefore costs O(1), and an edit afterwards copies at most one chunk.
+ */
+public class EntryTable implements AutoCloseable {
+    public static final int CATEGORY = 0;
+    public static final int KEY = 1;
+    public static final int ORIGINAL_TEXT = 2;
+    public static final int TRANSLATED_TEXT = 3;
+
+    private static final int COLUMNS = 4;
+    private static final int HEAP_COLUMNS = 2;
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final ReentrantLock writer;
+    private final boolean textOffHeap;
+    private volatile MappedTextStore texts;
+    private volatile Chunk[] chunks = new Chunk[0];
+    private int version = 0;
+    private int chunksVersion = 0;
+    private Observer observer;
+    private int batchDepth = 0;
+    private volatile DataItem[][] views = new DataItem[0][];
+    private volatile int rowCount = 0;
+    private volatile int size = 0;
+
+    /**
+     * Create a table that keeps all values on the heap.
+     */
+    public EntryTable() {
+        this(false);
+    }
+
+    /**
+     * Create a table with its own writer lock.
+     *
+     * @param textOffHeap whether the original and translated texts are kept in a memory-mapped file
+     */
+    public EntryTable(boolean textOffHeap) {
+        this(new ReentrantLock(), textOffHeap);
+    }
+
+    /**
+     * Create a table whose changes are serialized by the given lock.
+     *
+     * @param writer      the writer lock, shared with the owner of the table
+     * @param textOffHeap whether the original and translated texts are kept in a memory-mapped file
+     */
+    public EntryTable(ReentrantLock writer, boolean textOffHeap) {
+        this.writer = writer;
+        this.textOffHeap = textOffHeap;
+        this.texts = textOffHeap ? new MappedTextStore() : null;
+    }
+
+    /**
+     * Set the observer that is told about every change. It is called while the writer lock is held.
+     *
+     * @param observer the observer, or null for none
+     */
+    public void setObserver(Observer observer) {
+        writer.lock();
+        try {
+            this.observer = observer;
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Check whether the text columns are kept off-heap.
+     *
+     * @return true in off-heap mode
+     */
+    public boolean isTextOffHeap() {
+        return textOffHeap;
+    }
+
+    /**
+     * Get the off-heap text usage.
+     *
+     * @return the bytes written to the text file and the bytes of replaced texts, or null in heap mode
+     */
+    public OffHeapUsage getOffHeapUsage() {
+        return usageOf(texts);
+    }
+
+    // =========================
+    // Values
+    // =========================
+
+    /**
+     * Get a value of a row.
+     *
+     * @param row    the row id
+     * @param column the column, e.g. {@link #KEY}
+     * @return the value
+     */
+    public String get(int row, int column) {
+        return read(chunks, texts, row, column);
+    }
+
+    /**
+     * Set a value of a row. Views of the row see the new value; their JavaFX properties are not notified
+     * until {@link DataItem#syncProperties()} is called, so UI edits should go through {@link DataItem}'s setters.
+     *
+     * @param row    the row id
+     * @param column the column, e.g. {@link #KEY}
+     * @param value  the new value
+     */
+    public void set(int row, int column, String value) {
+        writer.lock();
+        try {
+            Chunk chunk = writable(row >>> CHUNK_BITS);
+            int offset = row & CHUNK_MASK;
+            if (column == CATEGORY) {
+                int id = CategoryIds.idOf(value);
+                if (chunk.categoryIds[offset] == id) return;
+                chunk.categoryIds[offset] = id;
+            } else if (column >= HEAP_COLUMNS && chunk.handles != null) {
+                long[] handles = chunk.handles[column - HEAP_COLUMNS];
+                long old = handles[offset];
+                // An unchanged text would only add garbage to the text file and a spurious change event
+                if (Objects.equals(texts.get(old), value)) return;
+                handles[offset] = texts.put(value);
+                texts.release(old);
+            } else {
+                String old = chunk.columns[column][offset];
+                if (Objects.equals(old, value)) return;
+                chunk.columns[column][offset] = value;
+                if (column == KEY) {
+                    if (observer != null && isLive(row)) observer.keyChanged(row, old);
+                    return;
+                }
+            }
+            if (observer != null && isLive(row)) observer.valueChanged(row, column);
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Get the category id of a row.
+     *
+     * @param row the row id
+     * @return the {@link CategoryIds} id
+     */
+    public int getCategoryId(int row) {
+        return chunks[row >>> CHUNK_BITS].categoryIds[row & CHUNK_MASK];
+    }
+
+    /**
+     * Get the number of row ids handed out so far, including removed rows.
+     *
+     * @return the upper bound of the row ids
+     */
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Check whether a row holds an entry.
+     *
+     * @param row the row id
+     * @return true if the row is in use
+     */
+    public boolean isLive(int row) {
+        return row >= 0 && row < rowCount && isLive(chunks, row);
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return the number of rows in use
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the ids of all rows in use, in row order.
+     * The stream is lazy and can be made parallel; rows added or removed while it runs may or may not be seen.
+     *
+     * @return the row ids
+     */
+    public IntStream rows() {
+        return IntStream.range(0, rowCount).filter(this::isLive);
+    }
+
+    /**
+     * Take an immutable snapshot of the table in constant time.
+     * The snapshot can be read from any thread while the table keeps changing.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        writer.lock();
+        try {
+            // From now on the current chunks belong to the snapshot; the table copies them before changing them
+            version++;
+            return new Snapshot(this, chunks, rowCount, size, texts);
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    // =========================
+    // Rows
+    // =========================
+
+    /**
+     * Store a new entry.
+     *
+     * @param categoryId     the {@link CategoryIds} id of the category
+     * @param key            the key
+     * @param originalText   the original text
+     * @param translatedText the translated text
+     * @return the row id of the entry
+     */
+    public int append(int categoryId, String key, String originalText, String translatedText) {
+        writer.lock();
+        try {
+            int row = allocateRow();
+            Chunk chunk = writable(row >>> CHUNK_BITS);
+            int offset = row & CHUNK_MASK;
+            chunk.categoryIds[offset] = categoryId;
+            chunk.columns[KEY][offset] = key;
+            if (chunk.handles != null) {
+                chunk.handles[ORIGINAL_TEXT - HEAP_COLUMNS][offset] = texts.put(originalText);
+                chunk.handles[TRANSLATED_TEXT - HEAP_COLUMNS][offset] = texts.put(translatedText);
+            } else {
+                chunk.columns[ORIGINAL_TEXT][offset] = originalText;
+                chunk.columns[TRANSLATED_TEXT][offset] = translatedText;
+            }
+            chunk.live[offset >>> 6] |= 1L << offset;
+            rowCount = row + 1;
+            size++;
+            if (observer != null) observer.rowAdded(row);
+            return row;
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Move a detached item into the table; the item becomes the view of its new row.
+     *
+     * @param item the detached item
+     * @return the row id of the entry
+     * @throws IllegalArgumentException if the item is already bound to a table
+     */
+    public int append(DataItem item) {
+        if (item.getTable() != null) {
+            throw new IllegalArgumentException("DataItem is already stored in a table: " + item.getKey());
+        }
+        writer.lock();
+        try {
+            int row = append(item.getCategoryId(), item.getKey(), item.getOriginalText(), item.getTranslatedText());
+            views[row >>> CHUNK_BITS][row & CHUNK_MASK] = item;
+            item.bind(this, row);
+            return row;
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Run a batch of changes with the writer lock held and JavaFX property notifications suspended.
+     * While the batch runs, {@link DataItem}'s setters write to the table without touching their properties;
+     * the owner of the table brings the properties of changed views up to date afterwards.
+     *
+     * @param changes the changes to run
+     */
+    public void batch(Runnable changes) {
+        writer.lock();
+        try {
+            batchDepth++;
+            changes.run();
+        } finally {
+            batchDepth--;
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Check whether the current thread is running a {@link #batch(Runnable)} on this table.
+     *
+     * @return true inside a batch
+     */
+    public boolean isBatching() {
+        return writer.isHeldByCurrentThread() && batchDepth > 0;
+    }
+
+    /**
+     * Get the view of a row if it was already created.
+     *
+     * @param row the row id
+     * @return the view, or null if the row has none or was removed
+     */
+    public DataItem existingView(int row) {
+        writer.lock();
+        try {
+            int chunk = row >>> CHUNK_BITS;
+            return chunk < views.length ? views[chunk][row & CHUNK_MASK] : null;
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Get the view of a row, creating it on first use.
+     *
+     * @param row the row id
+     * @return the DataItem bound to the row
+     */
+    public DataItem view(int row) {
+        writer.lock();
+        try {
+            DataItem[] chunkViews = views[row >>> CHUNK_BITS];
+            int offset = row & CHUNK_MASK;
+            DataItem view = chunkViews[offset];
+            if (view == null) {
+                view = new DataItem(this, row);
+                chunkViews[offset] = view;
+            }
+            return view;
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Remove an entry. Its view, if any, is detached and keeps the entry's values.
+     *
+     * @param row the row id
+     */
+    public void remove(int row) {
+        writer.lock();
+        try {
+            if (!isLive(row)) return;
+            if (observer != null) observer.rowRemoved(row);
+            Chunk chunk = writable(row >>> CHUNK_BITS);
+            int offset = row & CHUNK_MASK;
+            DataItem[] chunkViews = views[row >>> CHUNK_BITS];
+            DataItem view = chunkViews[offset];
+            if (view != null) {
+                view.unbind();
+                chunkViews[offset] = null;
+            }
+            for (String[] column : chunk.columns) {
+                if (column != null) column[offset] = null;
+            }
+            chunk.categoryIds[offset] = CategoryIds.NONE;
+            if (chunk.handles != null) {
+                for (long[] handles : chunk.handles) {
+                    texts.release(handles[offset]);
+                    handles[offset] = MappedTextStore.NULL;
+                }
+            }
+            chunk.live[offset >>> 6] &= ~(1L << offset);
+            size--;
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Remove all entries. Existing views are detached and keep their values.
+     * Row ids start from zero again, so snapshots taken before must no longer be matched against this table.
+     */
+    public void clear() {
+        writer.lock();
+        try {
+            for (DataItem[] chunkViews : views) {
+                for (DataItem view : chunkViews) {
+                    if (view != null) view.unbind();
+                }
+            }
+            chunks = new Chunk[0];
+            chunksVersion = version;
+            views = new DataItem[0][];
+            rowCount = 0;
+            size = 0;
+            if (texts != null) {
+                texts.close();
+                texts = new MappedTextStore();
+            }
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Release the off-heap text storage. Views must be detached first, e.g. by {@link #clear()};
+     * the table must not be changed afterwards. Snapshots taken before stay readable.
+     */
+    @Override
+    public void close() {
+        writer.lock();
+        try {
+            if (texts != null) {
+                texts.close();
+                texts = null;
+            }
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    private int allocateRow() {
+        int row = rowCount;
+        if ((row >>> CHUNK_BITS) == chunks.length) {
+            Chunk[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[chunks.length] = new Chunk(textOffHeap, version);
+            chunksVersion = version;
+            DataItem[][] grownViews = Arrays.copyOf(views, views.length + 1);
+            grownViews[views.length] = new DataItem[CHUNK_SIZE];
+            views = grownViews;
+            chunks = grown;
+        }
+        return row;
+    }
+
+    /**
+     * Get a chunk that may be changed in place, copying it first if a snapshot still shares it.
+     */
+    private Chunk writable(int index) {
+        Chunk[] current = chunks;
+        Chunk chunk = current[index];
+        if (chunk.version == version) return chunk;
+
+        Chunk copy = chunk.copy(version);
+        if (chunksVersion != version) {
+            current = current.clone();
+            chunksVersion = version;
+        }
+        current[index] = copy;
+        chunks = current;
+        return copy;
+    }
+
+    private static String read(Chunk[] chunks, MappedTextStore texts, int row, int column) {
+        Chunk chunk = chunks[row >>> CHUNK_BITS];
+        if (column == CATEGORY) return CategoryIds.nameOf(chunk.categoryIds[row & CHUNK_MASK]);
+        if (column >= HEAP_COLUMNS && chunk.handles != null) {
+            return texts.get(chunk.handles[column - HEAP_COLUMNS][row & CHUNK_MASK]);
+        }
+        return chunk.columns[column][row & CHUNK_MASK];
+    }
+
+    private static boolean isLive(Chunk[] chunks, int row) {
+        int offset = row & CHUNK_MASK;
+        return (chunks[row >>> CHUNK_BITS].live[offset >>> 6] & (1L << offset)) != 0;
+    }
+
+    private static OffHeapUsage usageOf(MappedTextStore texts) {
+        return texts != null ? new OffHeapUsage(texts.usedBytes(), texts.garbageBytes()) : null;
+    }
+
+    /**
+     * An immutable view of the table at the time {@link #snapshot()} was called.
+     * It has the same read methods as the table and additionally groups its rows by category.
+     * Row ids are those of the table, so {@link #view(int)} maps a row back to the live entry.
+     */
+    public static final class Snapshot {
+        private final EntryTable source;
+        private final Chunk[] chunks;
+        private final int rowCount;
+        private final int size;
+        private final MappedTextStore texts;
+        private volatile SortedMap<String, int[]> rowsByCategory;
+
+        private Snapshot(EntryTable source, Chunk[] chunks, int rowCount, int size, MappedTextStore texts) {
+            this.source = source;
+            this.chunks = chunks;
+            this.rowCount = rowCount;
+            this.size = size;
+            this.texts = texts;
+        }
+
+        /**
+         * Get a value of a row.
+         *
+         * @param row    the row id
+         * @param column the column, e.g. {@link EntryTable#KEY}
+         * @return the value
+         */
+        public String get(int row, int column) {
+            return read(chunks, texts, row, column);
+        }
+
+        /**
+         * Get the category id of a row.
+         *
+         * @param row the row id
+         * @return the {@link CategoryIds} id
+         */
+        public int getCategoryId(int row) {
+            return chunks[row >>> CHUNK_BITS].categoryIds[row & CHUNK_MASK];
+        }
+
+        /**
+         * Check whether a row held an entry.
+         *
+         * @param row the row id
+         * @return true if the row was in use
+         */
+        public boolean isLive(int row) {
+            return row >= 0 && row < rowCount && EntryTable.isLive(chunks, row);
+        }
+
+        /**
+         * Get the number of entries.
+         *
+         * @return the number of rows in use
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Get the ids of all rows in use, in row order.
+         *
+         * @return the row ids
+         */
+        public IntStream rows() {
+            return IntStream.range(0, rowCount).filter(this::isLive);
+        }
+
+        /**
+         * Check whether the text columns are kept off-heap.
+         *
+         * @return true in off-heap mode
+         */
+        public boolean isTextOffHeap() {
+            return texts != null;
+        }
+
+        /**
+         * Get the off-heap text usage of the storage the snapshot reads from.
+         *
+         * @return the bytes written to the text file and the bytes of replaced texts, or null in heap mode
+         */
+        public OffHeapUsage getOffHeapUsage() {
+            return usageOf(texts);
+        }
+
+        /**
+         * Get the row ids of every category, with categories sorted by name and rows in the order they were added.
+         * The grouping is computed on first use, so it runs on the thread that reads the snapshot.
+         *
+         * @return an unmodifiable sorted map from category to row ids; the arrays must not be modified
+         */
+        public SortedMap<String, int[]> rowsByCategory() {
+            SortedMap<String, int[]> grouped = rowsByCategory;
+            if (grouped == null) {
+                grouped = Collections.unmodifiableSortedMap(groupRows());
+                rowsByCategory = grouped;
+            }
+            return grouped;
+        }
+
+        /**
+         * Get detached copies of all entries, grouped by category.
+         *
+         * @return new DataItems holding the snapshot's values
+         */
+        public List<DataItem> copyItems() {
+            List<DataItem> items = new ArrayList<>(size);
+            for (int[] rows : rowsByCategory().values()) {
+                for (int row : rows) {
+                    items.add(new DataItem(get(row, CATEGORY), get(row, KEY), get(row, ORIGINAL_TEXT), get(row, TRANSLATED_TEXT)));
+                }
+            }
+            return items;
+        }
+
+        /**
+         * Get the live view of a row of the table the snapshot was taken from.
+         *
+         * @param row the row id
+         * @return the view, or null if the entry was removed since the snapshot was taken
+         */
+        public DataItem view(int row) {
+            return source.isLive(row) ? source.view(row) : null;
+        }
+
+        private SortedMap<String, int[]> groupRows() {
+            int[] counts = new int[16];
+            for (int row = 0; row < rowCount; row++) {
+                if (!isLive(row)) continue;
+                int id = getCategoryId(row);
+                if (id >= counts.length) counts = Arrays.copyOf(counts, Math.max(id + 1, counts.length * 2));
+                counts[id]++;
+            }
+            int[][] rowsOf = new int[counts.length][];
+            for (int id = 0; id < counts.length; id++) {
+                if (counts[id] > 0) rowsOf[id] = new int[counts[id]];
+            }
+            int[] filled = new int[counts.length];
+            for (int row = 0; row < rowCount; row++) {
+                if (!isLive(row)) continue;
+                int id = getCategoryId(row);
+                rowsOf[id][filled[id]++] = row;
+            }
+            SortedMap<String, int[]> grouped = new TreeMap<>();
+            for (int id = 0; id < rowsOf.length; id++) {
+                if (rowsOf[id] != null) grouped.put(CategoryIds.nameOf(id), rowsOf[id]);
+            }
+            return grouped;
+        }
+    }
+
+    /**
+     * Receives the changes of a table. Methods are called on the writing thread while the writer lock is held,
+     * so they must be quick and must not change the table.
+     */
+    public interface Observer {
+        /**
+         * Called after a row was added.
+         *
+         * @param row the row id
+         */
+        void rowAdded(int row);
+
+        /**
+         * Called before a row is removed, while its values can still be read.
+         *
+         * @param row the row id
+         */
+        void rowRemoved(int row);
+
+        /**
+         * Called after the key of a row changed.
+         *
+         * @param row    the row id
+         * @param oldKey the previous key
+         */
+        void keyChanged(int row, String oldKey);
+
+        /**
+         * Called after a value other than the key changed.
+         *
+         * @param row    the row id
+         * @param column the column, e.g. {@link EntryTable#ORIGINAL_TEXT}
+         */
+        void valueChanged(int row, int column);
+    }
+
+    /**
+     * Off-heap text usage.
+     *
+     * @param usedBytes    the bytes written to the text file
+     * @param garbageBytes the bytes of texts that were replaced or removed
+     */
+    public record OffHeapUsage(long usedBytes, long garbageBytes) {
+    }
+
+    private static final class Chunk {
+        final int version;
+        final int[] categoryIds;
+        final String[][] columns;
+        final long[][] handles;
+        final long[] live;
+
+        Chunk(boolean textOffHeap, int version) {
+            this.version = version;
+            categoryIds = new int[CHUNK_SIZE];
+            // Indexed by column; the category column is kept in categoryIds instead
+            columns = new String[textOffHeap ? HEAP_COLUMNS : COLUMNS][];
+            for (int column = KEY; column < columns.length; column++) {
+                columns[column] = new String[CHUNK_SIZE];
+            }
+            handles = textOffHeap ? new long[COLUMNS - HEAP_COLUMNS][CHUNK_SIZE] : null;
+            live = new long[CHUNK_SIZE / 64];
+        }
+
+        private Chunk(Chunk other, int version) {
+            this.version = version;
+            categoryIds = other.categoryIds.clone();
+            columns = new String[other.columns.length][];
+            for (int column = KEY; column < columns.length; column++) {
+                columns[column] = other.columns[column].clone();
+            }
+            handles = other.handles != null ? new long[][]{other.handles[0].clone(), other.handles[1].clone()} : null;
+            live = other.live.clone();
+        }
+
+        /**
+         * Copy the chunk's values into a new chunk owned by the given version.
+         */
+        Chunk copy(int version) {
+            return new Chunk(this, version);
+        }
+    }
+}
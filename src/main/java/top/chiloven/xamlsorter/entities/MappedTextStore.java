@@ -0,0 +1,163 @@
+package top.chiloven.xamlsorter.entities;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only text storage in a memory-mapped temporary file, used for the text columns of large projects.
+ * Each value is written once as a length-prefixed UTF-8 record and addressed by a long handle, so the heap only
+ * holds the handles; the operating system pages the text in and out as it is read.
+ * Replaced values are not reclaimed until the storage is closed; {@link #garbageBytes()} reports how much
+ * space they take.
+ * Writes are synchronized; reads are not and may run on any thread. The mapped segments are released by the
+ * garbage collector once nothing references them, so snapshots still holding handles stay readable after
+ * {@link #close()}.
+ */
+class MappedTextStore implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(MappedTextStore.class);
+
+    /**
+     * The handle of a null value.
+     */
+    static final long NULL = -1;
+
+    private static final int SEGMENT_BITS = 26;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final Arena arena = Arena.ofAuto();
+    private final Path file;
+    private final FileChannel channel;
+    private volatile MemorySegment[] segments = new MemorySegment[0];
+    private long position = 0;
+    private long garbage = 0;
+
+    /**
+     * Create the storage backed by a new temporary file, which is deleted when the storage is closed.
+     *
+     * @throws UncheckedIOException if the file cannot be created
+     */
+    MappedTextStore() {
+        try {
+            file = Files.createTempFile("xamlsorter-text-", ".bin");
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+            logger.info("Off-heap text storage created at {}", file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create off-heap text storage", e);
+        }
+    }
+
+    /**
+     * Store a value.
+     *
+     * @param value the value, may be null
+     * @return the handle of the stored value
+     * @throws IllegalArgumentException if the value does not fit into one segment
+     */
+    synchronized long put(String value) {
+        if (value == null) return NULL;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long recordSize = Integer.BYTES + (long) bytes.length;
+        if (recordSize > SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Text of " + bytes.length + " bytes is too large for off-heap storage");
+        }
+        // Records never span two segments
+        if ((position & SEGMENT_MASK) + recordSize > SEGMENT_SIZE) {
+            position = (position | SEGMENT_MASK) + 1;
+        }
+        MemorySegment segment = segment(position >>> SEGMENT_BITS);
+        long offset = position & SEGMENT_MASK;
+        segment.set(ValueLayout.JAVA_INT_UNALIGNED, offset, bytes.length);
+        MemorySegment.copy(bytes, 0, segment, ValueLayout.JAVA_BYTE, offset + Integer.BYTES, bytes.length);
+
+        long handle = position;
+        position += recordSize;
+        return handle;
+    }
+
+    /**
+     * Read a value.
+     *
+     * @param handle the handle returned by {@link #put(String)}
+     * @return the value
+     */
+    String get(long handle) {
+        if (handle == NULL) return null;
+        MemorySegment segment = segments[(int) (handle >>> SEGMENT_BITS)];
+        long offset = handle & SEGMENT_MASK;
+        int length = segment.get(ValueLayout.JAVA_INT_UNALIGNED, offset);
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, offset + Integer.BYTES, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Mark a stored value as no longer used.
+     *
+     * @param handle the handle of the value
+     */
+    synchronized void release(long handle) {
+        if (handle == NULL) return;
+        MemorySegment segment = segments[(int) (handle >>> SEGMENT_BITS)];
+        garbage += Integer.BYTES + segment.get(ValueLayout.JAVA_INT_UNALIGNED, handle & SEGMENT_MASK);
+    }
+
+    /**
+     * Get the number of bytes written so far.
+     *
+     * @return the used size of the backing file
+     */
+    synchronized long usedBytes() {
+        return position;
+    }
+
+    /**
+     * Get the number of bytes taken by released values.
+     *
+     * @return the size of the released records
+     */
+    synchronized long garbageBytes() {
+        return garbage;
+    }
+
+    /**
+     * Close the storage and delete its file. Nothing can be stored afterwards; the mapping itself is released
+     * once the last reader lets go of it.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+            logger.info("Off-heap text storage at {} released ({} bytes used)", file, position);
+        } catch (IOException e) {
+            logger.warn("Failed to close off-heap text storage at {}", file, e);
+        }
+    }
+
+    private MemorySegment segment(long index) {
+        MemorySegment[] current = segments;
+        if (index < current.length) return current[(int) index];
+        try {
+            List<MemorySegment> grown = new ArrayList<>(List.of(current));
+            grown.add(channel.map(FileChannel.MapMode.READ_WRITE, index * SEGMENT_SIZE, SEGMENT_SIZE, arena));
+            segments = grown.toArray(new MemorySegment[0]);
+            return segments[(int) index];
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map off-heap text segment " + index, e);
+        }
+    }
+}
@@ -1,28 +1,29 @@
 package top.chiloven.xamlsorter.entities;
 
 import javafx.scene.control.ContentDisplay;
-import javafx.scene.control.Label;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TreeTableCell;
+import javafx.scene.control.TreeTableColumn;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class MultiLineTreeTableCell<S> extends TreeTableCell<S, String> {
     private static final Logger logger = LogManager.getLogger(MultiLineTreeTableCell.class);
+    private static final Object HEIGHT_CACHE_KEY = new Object();
 
-    private final TextArea textArea = new TextArea();
-    private final Label label = new Label();
+    // Created on the first edit: the table creates cells for every visible row, and most are never edited
+    private TextArea textArea;
 
     /**
      * Constructs a MultiLineTreeTableCell that allows editing of multi-line text.
-     * The cell will display a TextArea for editing and a Label for display.
+     * The cell displays its text directly and only creates a TextArea once it is edited.
+     * Measured heights are cached per column, so rows scrolling back into view are not laid out again.
+     * When the table has a fixed cell size, only a one-line preview of the text is shown.
      */
     public MultiLineTreeTableCell() {
-        // Enable text area to handle multiple lines
-        textArea.setWrapText(true);
-        textArea.setPrefRowCount(3);
-        textArea.setMaxHeight(200);
-
         // Double click to edit
         this.setOnMouseClicked(event -> {
             if (event.getClickCount() == 2 && !isEmpty()) {
@@ -30,6 +31,21 @@ public class MultiLineTreeTableCell<S> extends TreeTableCell<S, String> {
                 startEdit();
             }
         });
+    }
+
+    /**
+     * Get the editor of this cell, creating it on first use.
+     *
+     * @return the TextArea used for editing
+     */
+    private TextArea getTextArea() {
+        if (textArea != null) return textArea;
+
+        // Enable text area to handle multiple lines
+        textArea = new TextArea();
+        textArea.setWrapText(true);
+        textArea.setPrefRowCount(3);
+        textArea.setMaxHeight(200);
 
         // Keyboard event handling: Shift+Enter to commit, ESC to cancel, Enter for new line
         textArea.setOnKeyPressed(event -> {
@@ -56,6 +72,7 @@ public class MultiLineTreeTableCell<S> extends TreeTableCell<S, String> {
                 commitEdit(textArea.getText());
             }
         });
+        return textArea;
     }
 
     // Override startEdit to initialize the text area with the current item
@@ -63,10 +80,13 @@ public class MultiLineTreeTableCell<S> extends TreeTableCell<S, String> {
     public void startEdit() {
         logger.info("startEdit called for cell at row: {}", getIndex());
         super.startEdit();
-        textArea.setText(getItem());
-        setGraphic(textArea);
+        if (!isEditing()) return;
+        TextArea editor = getTextArea();
+        editor.setText(getItem());
+        setText(null);
+        setGraphic(editor);
         setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
-        textArea.requestFocus();
+        editor.requestFocus();
     }
 
     // Override cancelEdit to reset the display
@@ -81,6 +101,8 @@ public class MultiLineTreeTableCell<S> extends TreeTableCell<S, String> {
     @Override
     public void commitEdit(String newValue) {
         logger.debug("commitEdit called for cell at row: {}, newValue: {}", getIndex(), newValue);
+        HeightCache cache = heightCache();
+        if (cache != null) cache.remove(getItem());
         super.commitEdit(newValue);
         // ⚠️ 移除：这里不再写回 DataItem，统一由列的 onEditCommit 处理并入栈
         updateDisplay(newValue);
@@ -98,8 +120,10 @@ public class MultiLineTreeTableCell<S> extends TreeTableCell<S, String> {
             setGraphic(null);
         } else {
             if (isEditing()) {
-                textArea.setText(item);
-                setGraphic(textArea);
+                TextArea editor = getTextArea();
+                editor.setText(item);
+                setText(null);
+                setGraphic(editor);
                 setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
             } else {
                 updateDisplay(item);
@@ -109,13 +133,86 @@ public class MultiLineTreeTableCell<S> extends TreeTableCell<S, String> {
 
     /**
      * Updates the display of the cell with the given item.
+     * The text is rendered by the cell itself, without a nested control.
      *
      * @param item the item to display in the cell
      */
     private void updateDisplay(String item) {
-        label.setText(item != null ? item : "");
-        setGraphic(label);
-        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        String text = item != null ? item : "";
+        boolean fixedHeight = getTreeTableView() != null && getTreeTableView().getFixedCellSize() > 0;
+        setText(fixedHeight ? preview(text) : text);
+        setGraphic(null);
+        setContentDisplay(ContentDisplay.TEXT_ONLY);
+    }
+
+    /**
+     * Shorten a text to its first line, marking that more follows.
+     *
+     * @param text the text
+     * @return the first line of the text
+     */
+    private static String preview(String text) {
+        int lineEnd = text.indexOf('\n');
+        if (lineEnd < 0) return text;
+        return text.substring(0, lineEnd > 0 && text.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd) + " …";
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        HeightCache cache = heightCache();
+        String text = getText();
+        if (cache == null || getSkin() == null || isEditing() || isEmpty() || text == null) return super.computePrefHeight(width);
+
+        double height = cache.get(text);
+        if (height < 0) {
+            height = super.computePrefHeight(width);
+            cache.put(text, height);
+        }
+        return height;
+    }
+
+    /**
+     * Get the height cache of this cell's column, creating it on first use.
+     *
+     * @return the cache, or null if the cell is not in a column
+     */
+    private HeightCache heightCache() {
+        TreeTableColumn<S, String> column = getTableColumn();
+        if (column == null) return null;
+        return (HeightCache) column.getProperties().computeIfAbsent(HEIGHT_CACHE_KEY, k -> new HeightCache(column));
+    }
+
+    /**
+     * The measured heights of the texts of one column. All cells of a column share font and padding, so the
+     * height only depends on the text and the column width; the cache is emptied when the width changes.
+     * The least recently used entries are dropped once the cache is full.
+     */
+    private static final class HeightCache {
+        private static final int MAX_ENTRIES = 8192;
+
+        private final Map<String, Double> heights = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Double> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+
+        HeightCache(TreeTableColumn<?, ?> column) {
+            column.widthProperty().addListener((observable, oldWidth, newWidth) -> heights.clear());
+        }
+
+        double get(String text) {
+            Double height = heights.get(text);
+            return height != null ? height : -1;
+        }
+
+        void put(String text, double height) {
+            heights.put(text, height);
+        }
+
+        void remove(String text) {
+            if (text != null) heights.remove(text);
+        }
     }
 
 }
@@ -0,0 +1,25 @@
+package top.chiloven.xamlsorter.entities;
+
+import java.util.List;
+
+/**
+ * An immutable copy of the project state, taken on the JavaFX Application Thread
+ * so that it can be serialized in the background while editing continues.
+ *
+ * @param meta          a copy of the project metadata
+ * @param entries       a snapshot of the project's entries
+ * @param clipboardKeys the keys currently in the clipboard
+ * @param generation    the change generation of the store taken just before the snapshot; the snapshot contains
+ *                      at least every change up to it
+ */
+public record ProjectSnapshot(ProjectMeta meta, EntryTable.Snapshot entries, List<String> clipboardKeys, long generation) {
+
+    /**
+     * Get detached copies of every entry. Each call creates new copies, so it should run in the background.
+     *
+     * @return new DataItems holding the snapshot's values
+     */
+    public List<DataItem> items() {
+        return entries.copyItems();
+    }
+}
@@ -0,0 +1,219 @@
+package top.chiloven.xamlsorter.modules;
+
+import top.chiloven.xamlsorter.entities.ProjectSnapshot;
+import top.chiloven.xamlsorter.modules.journal.ProjectJournal;
+import top.chiloven.xamlsorter.ui.MainPage;
+import top.chiloven.xamlsorter.utils.ShowAlert;
+import top.chiloven.xamlsorter.utils.TaskExecutorService;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
+import javafx.util.Duration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.DateFormat;
+import java.util.Date;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static top.chiloven.xamlsorter.modules.I18n.getLang;
+
+public class AutosaveManager {
+    private static final Logger logger = LogManager.getLogger(AutosaveManager.class);
+
+    // Next to the config directory of the PreferencesManager, like all other application state
+    private static final String RECOVERY_DIR = System.getProperty("user.dir") + File.separator + "recovery";
+    private static final File RECOVERY_FILE = new File(RECOVERY_DIR, "autosave.xsproject");
+    private static final File RECOVERY_INFO = new File(RECOVERY_DIR, "autosave.properties");
+
+    private static final Object recoveryLock = new Object();
+    private static final AtomicBoolean writing = new AtomicBoolean(false);
+    private static final AtomicLong generation = new AtomicLong();
+    private static volatile long autosavedStoreGeneration = -1;
+    private static Timeline timeline;
+
+    /**
+     * Start the periodic autosave using the interval from the preferences.
+     * This method must be called on the JavaFX Application Thread.
+     *
+     * @param mainPage the MainPage whose project should be autosaved
+     */
+    public static void start(MainPage mainPage) {
+        int interval = PreferencesManager.getAutosaveInterval();
+        if (interval <= 0) {
+            logger.info("Autosave is disabled.");
+            return;
+        }
+
+        stop();
+        timeline = new Timeline(new KeyFrame(Duration.seconds(interval), event -> autosave(mainPage)));
+        timeline.setCycleCount(Animation.INDEFINITE);
+        timeline.play();
+        logger.info("Autosave started with an interval of {} seconds.", interval);
+    }
+
+    /**
+     * Stop the periodic autosave.
+     */
+    public static void stop() {
+        if (timeline != null) {
+            timeline.stop();
+            timeline = null;
+        }
+    }
+
+    /**
+     * Write the current project to the recovery file if it has unsaved changes
+     * and the store changed since the previous autosave.
+     * The snapshot is taken on the JavaFX Application Thread and serialized in a background thread,
+     * so editing is not blocked while the file is written.
+     *
+     * @param mainPage the MainPage whose project should be autosaved
+     */
+    public static void autosave(MainPage mainPage) {
+        if (!mainPage.isProjectModified() || MainPage.getCurrentProjectMeta() == null) return;
+        if (mainPage.getStore().dirtyTracker().generation() == autosavedStoreGeneration) {
+            logger.debug("No changes since the previous autosave, skipping this one.");
+            return;
+        }
+        if (!writing.compareAndSet(false, true)) {
+            logger.debug("Previous autosave still running, skipping this one.");
+            return;
+        }
+
+        ProjectSnapshot snapshot = ProjectManager.takeSnapshot(mainPage);
+        File projectFile = mainPage.getCurrentProjectFile();
+        long snapshotGeneration = generation.get();
+
+        TaskExecutorService.executeTask(
+                "Autosave",
+                () -> {
+                    try {
+                        return writeRecovery(snapshot, projectFile, snapshotGeneration);
+                    } catch (Exception e) {
+                        throw new RuntimeException("Failed to write recovery file: " + RECOVERY_FILE.getAbsolutePath(), e);
+                    } finally {
+                        writing.set(false);
+                    }
+                },
+                written -> {
+                    if (written) {
+                        autosavedStoreGeneration = snapshot.generation();
+                        logger.info("Autosaved {} items to {}", snapshot.entries().size(), RECOVERY_FILE.getAbsolutePath());
+                    }
+                },
+                error -> logger.error("Autosave failed", error)
+        );
+    }
+
+    /**
+     * Write a snapshot to the recovery file, unless the recovery was discarded after the snapshot was taken.
+     * This method is called from a background thread.
+     *
+     * @param snapshot           the project snapshot
+     * @param projectFile        the project file the snapshot belongs to, or null for an unsaved project
+     * @param snapshotGeneration the discard generation at the time the snapshot was taken
+     * @return true if the recovery file was written
+     * @throws Exception if writing fails
+     */
+    private static boolean writeRecovery(ProjectSnapshot snapshot, File projectFile, long snapshotGeneration) throws Exception {
+        Files.createDirectories(Path.of(RECOVERY_DIR));
+        File tmp = new File(RECOVERY_DIR, RECOVERY_FILE.getName() + ".tmp");
+        ProjectFileManager.writeXsProject(tmp, snapshot.meta(), snapshot.items(), snapshot.clipboardKeys());
+
+        synchronized (recoveryLock) {
+            if (generation.get() != snapshotGeneration) {
+                logger.debug("Recovery was discarded while autosaving, dropping the snapshot.");
+                Files.deleteIfExists(tmp.toPath());
+                return false;
+            }
+
+            Properties info = new Properties();
+            info.setProperty("project.path", projectFile != null ? projectFile.getAbsolutePath() : "");
+            try (FileOutputStream fos = new FileOutputStream(RECOVERY_INFO)) {
+                info.store(fos, "xamlSorter.Java autosave");
+            }
+            Files.move(tmp.toPath(), RECOVERY_FILE.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return true;
+    }
+
+    /**
+     * Delete the recovery file, e.g. after the project was saved or the user discarded the changes.
+     * Autosaves that are still in flight are dropped as well.
+     */
+    public static void discardRecovery() {
+        synchronized (recoveryLock) {
+            generation.incrementAndGet();
+            autosavedStoreGeneration = -1;
+            try {
+                Files.deleteIfExists(RECOVERY_FILE.toPath());
+                Files.deleteIfExists(RECOVERY_INFO.toPath());
+            } catch (IOException e) {
+                logger.warn("Failed to delete recovery file: {}", RECOVERY_FILE.getAbsolutePath(), e);
+            }
+        }
+    }
+
+    /**
+     * Offer to restore the recovery file if it is newer than the project it belongs to.
+     * This method shows a dialog in the UI thread and should be called once on startup.
+     *
+     * @param mainPage the MainPage to restore the project into
+     */
+    public static void offerRestore(MainPage mainPage) {
+        if (!RECOVERY_FILE.isFile()) return;
+
+        Properties info = new Properties();
+        if (RECOVERY_INFO.isFile()) {
+            try (FileInputStream fis = new FileInputStream(RECOVERY_INFO)) {
+                info.load(fis);
+            } catch (IOException e) {
+                logger.warn("Failed to read recovery info: {}", RECOVERY_INFO.getAbsolutePath(), e);
+            }
+        }
+        String path = info.getProperty("project.path", "");
+        File projectFile = path.isEmpty() ? null : new File(path);
+
+        long recoveryTime = RECOVERY_FILE.lastModified();
+        long projectTime = projectFile != null && projectFile.isFile()
+                ? Math.max(projectFile.lastModified(), ProjectJournal.journalFileFor(projectFile).lastModified())
+                : 0;
+        if (recoveryTime <= projectTime) {
+            logger.info("Recovery file is older than {}, discarding it.", path);
+            discardRecovery();
+            return;
+        }
+
+        ButtonType restoreBtn = new ButtonType(getLang("module.autosave.restore.button.restore"), ButtonBar.ButtonData.OK_DONE);
+        ButtonType discardBtn = new ButtonType(getLang("module.autosave.restore.button.discard"), ButtonBar.ButtonData.NO);
+        Optional<ButtonType> result = ShowAlert.confirm(
+                getLang("module.autosave.restore.title"),
+                getLang("module.autosave.restore.header"),
+                getLang("module.autosave.restore.content",
+                        DateFormat.getDateTimeInstance().format(new Date(recoveryTime)),
+                        projectFile != null ? projectFile.getAbsolutePath() : getLang("page.main.title.proj_name.untitled")),
+                restoreBtn, discardBtn
+        );
+
+        if (result.isPresent() && result.get() == restoreBtn) {
+            logger.info("User chose to restore the autosaved project.");
+            ProjectManager.restoreRecovery(mainPage, RECOVERY_FILE, projectFile);
+        } else {
+            logger.info("User discarded the autosaved project.");
+            discardRecovery();
+        }
+    }
+}
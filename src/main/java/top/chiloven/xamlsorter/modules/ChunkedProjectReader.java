@@ -0,0 +1,398 @@
+package top.chiloven.xamlsorter.modules;
+
+import top.chiloven.xamlsorter.entities.DataItem;
+import top.chiloven.xamlsorter.entities.ProjectMeta;
+import top.chiloven.xamlsorter.utils.StringPool;
+import top.chiloven.xamlsorter.utils.TaskExecutorService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads a .xsproject file by indexing its category ({@code <C>}) elements and decoding them concurrently.
+ * Categories are assembled in file order, so the result is the same as the DOM loader's.
+ * Each category is verified against its checksum on its own, so a damaged category is skipped
+ * and reported instead of failing the whole file. The checksum covers the raw body of the element,
+ * so it is verified before the element is parsed and a damaged category is never decoded.
+ */
+public class ChunkedProjectReader {
+    private static final Logger logger = LogManager.getLogger(ChunkedProjectReader.class);
+
+    private static final Pattern ENCODING_PATTERN = Pattern.compile("encoding=[\"']([A-Za-z0-9._-]+)[\"']");
+    private static final Pattern CATEGORY_NAME_PATTERN = Pattern.compile("<C\\s[^>]*?\\bc=\"([^\"<]*)\"");
+    private static final Pattern BODY_CHECKSUM_PATTERN = Pattern.compile("\\sbcrc=\"([^\"<]*)\"");
+
+    private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY = ThreadLocal.withInitial(() -> {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        return factory;
+    });
+
+    /**
+     * Read a project file, decoding its categories in parallel.
+     * This method is called from a background thread.
+     *
+     * @param file the project file
+     * @return the loaded project, or null if the file layout is not recognised and the DOM loader should be used
+     * @throws Exception if the file or its metadata cannot be read
+     */
+    public static ProjectFileManager.LoadedProject read(File file) throws Exception {
+        String content = decode(Files.readAllBytes(file.toPath()));
+
+        int[] data = locateData(content);
+        if (data == null) {
+            logger.debug("No complete <Data> element found in {}", file.getAbsolutePath());
+            return null;
+        }
+        int dataStart = data[0];
+
+        // The header (meta + clipboard) must come before the data for the index to be complete
+        String tail = content.substring(data[2]);
+        if (indexOfTag(tail, "Meta", 0) >= 0 || indexOfTag(tail, "Clipboard", 0) >= 0) {
+            logger.debug("Unexpected element order in {}", file.getAbsolutePath());
+            return null;
+        }
+
+        List<int[]> chunks = indexCategories(content, data[1], data[2]);
+        logger.debug("Indexed {} categories in {}", chunks.size(), file.getAbsolutePath());
+
+        ProjectMeta meta = new ProjectMeta();
+        List<String> clipboardKeys = new ArrayList<>();
+        readHeader(content.substring(0, dataStart) + "</XsProject>", meta, clipboardKeys);
+
+        List<DecodedCategory> decoded = TaskExecutorService.parallelMap(
+                "DecodeCategories",
+                chunks,
+                chunk -> decodeCategory(content.substring(chunk[0], chunk[1]), chunk[0])
+        );
+
+        List<DataItem> items = new ArrayList<>();
+        List<String> damaged = new ArrayList<>();
+        for (DecodedCategory category : decoded) {
+            if (category.intact()) {
+                items.addAll(category.items());
+            } else {
+                damaged.add(category.name());
+            }
+        }
+        return new ProjectFileManager.LoadedProject(meta, items, clipboardKeys, damaged);
+    }
+
+    /**
+     * Decode the bytes of a project file with the encoding it declares, dropping a byte order mark.
+     *
+     * @param bytes the file content
+     * @return the decoded text
+     */
+    static String decode(byte[] bytes) {
+        String decodedText = new String(bytes, detectCharset(bytes));
+        return decodedText.startsWith("\uFEFF") ? decodedText.substring(1) : decodedText;
+    }
+
+    /**
+     * Find the {@code <Data>} element of a project file.
+     *
+     * @param content the file content
+     * @return the offsets of the start tag, of the element content and of the end of the content,
+     * or null if there is no complete {@code <Data>} element
+     */
+    private static int[] locateData(String content) {
+        int dataStart = indexOfTag(content, "Data", 0);
+        if (dataStart < 0) return null;
+        int dataOpenEnd = findTagEnd(content, dataStart);
+        if (dataOpenEnd < 0) return null;
+        boolean emptyData = content.charAt(dataOpenEnd - 1) == '/';
+        int dataEnd = emptyData ? dataOpenEnd + 1 : content.lastIndexOf("</Data>");
+        if (dataEnd < dataOpenEnd) return null;
+        return new int[]{dataStart, emptyData ? dataEnd : dataOpenEnd + 1, dataEnd};
+    }
+
+    /**
+     * Verify the body checksums of all categories of a project file without parsing them,
+     * e.g. for a loader that parses the file in one piece and no longer sees the raw bodies.
+     *
+     * @param content the file content
+     * @return for each {@code <C>} element in file order, whether it passes {@link #verifyBody(String)}
+     */
+    static List<Boolean> verifyCategories(String content) {
+        int[] data = locateData(content);
+        if (data == null) return List.of();
+        List<Boolean> verified = new ArrayList<>();
+        for (int[] chunk : indexCategories(content, data[1], data[2])) {
+            verified.add(verifyBody(content.substring(chunk[0], chunk[1])));
+        }
+        return verified;
+    }
+
+    /**
+     * Verify a {@code <C>} element against the checksum of its raw body, without parsing it.
+     * @param xml the element source
+     * Elements without a {@code bcrc} attribute carry no checksum and always pass; a malformed start tag is left
+     * for the parser to report.
+     *
+     * @param xml the element source
+     * @return whether the body matches its checksum
+     */
+    static boolean verifyBody(String xml) {
+        int open = indexOfTag(xml, "C", 0);
+        int openEnd = open >= 0 ? findTagEnd(xml, open) : -1;
+        if (openEnd < 0) return true;
+        Matcher matcher = BODY_CHECKSUM_PATTERN.matcher(xml).region(open, openEnd);
+        if (!matcher.find()) return true;
+        String body = body(xml);
+        return body != null && matcher.group(1).equalsIgnoreCase(ProjectFileManager.categoryChecksum(body));
+    }
+
+    /**
+     * Get the raw body of a {@code <C>} element, the text between its start tag and its end tag.
+     *
+     * @param xml the element source
+     * @return the body, empty for an empty-element tag, or null if the element is not complete
+     */
+    static String body(String xml) {
+        int open = indexOfTag(xml, "C", 0);
+        int openEnd = open >= 0 ? findTagEnd(xml, open) : -1;
+        if (openEnd < 0) return null;
+        if (xml.charAt(openEnd - 1) == '/') return "";
+        int close = xml.lastIndexOf("</C>");
+        return close > openEnd ? xml.substring(openEnd + 1, close) : null;
+    }
+
+    /**
+     * Split the content of the {@code <Data>} element into one chunk per {@code <C>} element.
+     * Chunks are cut at each {@code </C>} rather than at each {@code <C}, so a damaged start tag
+     * makes its own chunk fail to decode instead of silently merging into its neighbours.
+     *
+     * @param content the file content
+     * @param from    the offset to start searching at
+     * @param to      the offset to stop searching at
+     * @return a list of {start, end} offsets
+     */
+    static List<int[]> indexCategories(String content, int from, int to) {
+        List<int[]> chunks = new ArrayList<>();
+        int pos = from;
+        while (true) {
+            while (pos < to && Character.isWhitespace(content.charAt(pos))) pos++;
+            if (pos >= to) break;
+
+            int end;
+            int openEnd = indexOfTag(content, "C", pos) == pos ? findTagEnd(content, pos) : -1;
+            if (openEnd >= 0 && openEnd < to && content.charAt(openEnd - 1) == '/') {
+                end = openEnd + 1;
+            } else {
+                int close = content.indexOf("</C>", pos);
+                end = close < 0 || close + "</C>".length() > to ? to : close + "</C>".length();
+            }
+            chunks.add(new int[]{pos, end});
+            pos = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Verify and decode one {@code <C c="" bcrc=""><I k="" ot="" tt=""/>...</C>} element.
+     * This method is called from a background thread.
+     *
+     * @param xml    the element source
+     * @param offset the offset of the element in the file, used to name categories whose name cannot be read
+     * @return the decoded category, marked as not intact if it is malformed or fails its checksum
+     */
+    static DecodedCategory decodeCategory(String xml, int offset) {
+        if (!verifyBody(xml)) {
+            String name = guessCategoryName(xml, offset);
+            logger.warn("Checksum mismatch in category '{}' at offset {}", name, offset);
+            return new DecodedCategory(name, List.of(), false);
+        }
+
+        List<DataItem> items = new ArrayList<>();
+        String category = null;
+        try {
+            XMLStreamReader reader = INPUT_FACTORY.get().createXMLStreamReader(new StringReader(xml));
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) continue;
+                    switch (reader.getLocalName()) {
+                        case "C" -> {
+                            if (category != null) throw new XMLStreamException("Nested category element");
+                            category = StringPool.intern(attribute(reader, "c"));
+                        }
+                        case "I" -> items.add(new DataItem(category != null ? category : "",
+                                pooledAttribute(reader, "k"), pooledAttribute(reader, "ot"), pooledAttribute(reader, "tt")));
+                        default -> throw new XMLStreamException("Unexpected element <" + reader.getLocalName() + ">");
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            String name = category != null ? category : guessCategoryName(xml, offset);
+            logger.warn("Category '{}' at offset {} is malformed: {}", name, offset, e.getMessage());
+            return new DecodedCategory(name, List.of(), false);
+        }
+
+        if (category == null) {
+            logger.warn("No category element found at offset {}", offset);
+            return new DecodedCategory(guessCategoryName(xml, offset), List.of(), false);
+        }
+        return new DecodedCategory(category, items, true);
+    }
+
+    /**
+     * Best-effort name of a category whose element could not be parsed, for reporting it to the user.
+     *
+     * @param xml    the element source
+     * @param offset the offset of the element in the file
+     * @return the category name if the start tag is still readable, otherwise a placeholder with the offset
+     */
+    private static String guessCategoryName(String xml, int offset) {
+        Matcher matcher = CATEGORY_NAME_PATTERN.matcher(xml);
+        if (matcher.find()) {
+            return matcher.group(1)
+                    .replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                    .replace("&apos;", "'").replace("&amp;", "&");
+        }
+        return "@" + offset;
+    }
+
+    /**
+     * Read the metadata and clipboard part of a project file.
+     *
+     * @param xml           the header, closed with {@code </XsProject>}
+     * @param meta          the metadata to fill in
+     * @param clipboardKeys the list to add clipboard keys to
+     * @throws XMLStreamException if the header is malformed
+     */
+    private static void readHeader(String xml, ProjectMeta meta, List<String> clipboardKeys) throws XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.get().createXMLStreamReader(new StringReader(xml));
+        try {
+            boolean inMeta = false;
+            boolean inClipboard = false;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "Meta" -> inMeta = false;
+                        case "Clipboard" -> inClipboard = false;
+                        default -> {
+                        }
+                    }
+                    continue;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT) continue;
+
+                switch (reader.getLocalName()) {
+                    case "Meta" -> inMeta = true;
+                    case "Clipboard" -> inClipboard = true;
+                    case "Name" -> {
+                        if (inMeta) meta.setName(reader.getElementText());
+                    }
+                    case "Description" -> {
+                        if (inMeta) meta.setDescription(reader.getElementText());
+                    }
+                    case "Author" -> {
+                        if (inMeta) meta.setAuthor(reader.getElementText());
+                    }
+                    case "I" -> {
+                        if (inClipboard) clipboardKeys.add(pooledAttribute(reader, "k"));
+                    }
+                    default -> {
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static String attribute(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        return value != null ? value : "";
+    }
+
+    private static String pooledAttribute(XMLStreamReader reader, String name) {
+        return StringPool.intern(attribute(reader, name));
+    }
+
+    /**
+     * Find the next start tag with the given name, ignoring longer names sharing the prefix.
+     *
+     * @param content the text to search
+     * @param name    the element name
+     * @param from    the offset to start at
+     * @return the offset of the '<', or -1
+     */
+    private static int indexOfTag(String content, String name, int from) {
+        String open = "<" + name;
+        int pos = from;
+        while ((pos = content.indexOf(open, pos)) >= 0) {
+            int after = pos + open.length();
+            if (after < content.length()) {
+                char c = content.charAt(after);
+                if (c == '>' || c == '/' || Character.isWhitespace(c)) return pos;
+            }
+            pos = after;
+        }
+        return -1;
+    }
+
+    /**
+     * Find the '>' closing the tag that starts at {@code pos}, skipping over quoted attribute values.
+     *
+     * @param content the text to search
+     * @param pos     the offset of the '<'
+     * @return the offset of the '>', or -1 if the tag is not terminated
+     */
+    private static int findTagEnd(String content, int pos) {
+        char quote = 0;
+        for (int i = pos + 1; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (quote != 0) {
+                if (c == quote) quote = 0;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A decoded category chunk.
+     *
+     * @param name   the category name
+     * @param items  the items of the category, empty if it is damaged
+     * @param intact whether the category decoded cleanly and matched its checksum
+     */
+    record DecodedCategory(String name, List<DataItem> items, boolean intact) {
+    }
+
+    private static Charset detectCharset(byte[] bytes) {
+        String prolog = new String(bytes, 0, Math.min(bytes.length, 128), StandardCharsets.ISO_8859_1);
+        if (prolog.startsWith("<?xml")) {
+            Matcher matcher = ENCODING_PATTERN.matcher(prolog.substring(0, Math.max(prolog.indexOf("?>"), 0)));
+            if (matcher.find()) {
+                try {
+                    return Charset.forName(matcher.group(1));
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Unknown encoding '{}' declared, assuming UTF-8", matcher.group(1));
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+}
@@ -1,6 +1,7 @@
 package top.chiloven.xamlsorter.modules;
 
 import top.chiloven.xamlsorter.entities.DataItem;
+import top.chiloven.xamlsorter.utils.StringPool;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -26,9 +27,7 @@ public class ClipboardManager {
         logger.debug("Copying {} items to clipboard.", items.size());
         clipboard.clear();
         for (DataItem item : items) {
-            clipboard.add(new DataItem(
-                    item.getCategory(), item.getKey(), item.getOriginalText(), item.getTranslatedText()
-            ));
+            clipboard.add(pooledCopy(item));
         }
         logger.debug("Clipboard now contains {} items.", clipboard.size());
     }
@@ -42,40 +41,58 @@ public class ClipboardManager {
         logger.debug("Retrieving a copy of the clipboard with {} items.", clipboard.size());
         // Return a copy of the clipboard to avoid external modifications
         List<DataItem> clipboardCopy = clipboard.stream()
-                .map(item -> new DataItem(
-                        item.getCategory(), item.getKey(), item.getOriginalText(), item.getTranslatedText()))
+                .map(ClipboardManager::pooledCopy)
                 .collect(Collectors.toList());
         logger.debug("Clipboard copy created with {} items.", clipboardCopy.size());
         return clipboardCopy;
     }
 
     /**
-     * Finds DataItems by their keys in the provided list and sets them to the clipboard.
+     * Gets the keys of the DataItems currently in the clipboard.
+     *
+     * @return a new list of clipboard keys
+     */
+    public static List<String> getClipboardKeys() {
+        return clipboard.stream().map(DataItem::getKey).collect(Collectors.toList());
+    }
+
+    /**
+     * Finds DataItems by their keys in the provided store and sets them to the clipboard.
      * Usually used to restore clipboard content when loading project files.
      *
-     * @param keys     key list to restore to clipboard
-     * @param allItems All DataItems available in the project, used to find matching keys
+     * @param keys  key list to restore to clipboard
+     * @param store the store holding the project's entries, used to find matching keys
      */
-    public static void setClipboardKeys(List<String> keys, List<DataItem> allItems) {
+    public static void setClipboardKeys(List<String> keys, TranslationStore store) {
         logger.debug("Setting clipboard with keys: {}", keys);
         clipboard.clear();
         for (String key : keys) {
             // Find the DataItem with the matching key
-            allItems.stream()
-                    .filter(item -> item.getKey().equals(key))
-                    .findFirst().ifPresent(found -> {
-                        clipboard.add(new DataItem(
-                                found.getCategory(),
-                                found.getKey(),
-                                found.getOriginalText(),
-                                found.getTranslatedText()
-                        ));
-                        logger.trace("Added DataItem with key '{}' to clipboard.", key);
-                    });
+            DataItem found = store.get(key);
+            if (found != null) {
+                clipboard.add(pooledCopy(found));
+                logger.trace("Added DataItem with key '{}' to clipboard.", key);
+            }
         }
         logger.debug("Clipboard now contains {} items after setting keys.", clipboard.size());
     }
 
+    /**
+     * Creates a detached copy of a DataItem whose values come from the string pool,
+     * so clipboard copies share their texts with the project instead of duplicating them.
+     *
+     * @param item the DataItem to copy
+     * @return the copy
+     */
+    private static DataItem pooledCopy(DataItem item) {
+        return new DataItem(
+                StringPool.intern(item.getCategory()),
+                StringPool.intern(item.getKey()),
+                StringPool.intern(item.getOriginalText()),
+                StringPool.intern(item.getTranslatedText())
+        );
+    }
+
     /**
      * Checks if the clipboard has any content.
      *
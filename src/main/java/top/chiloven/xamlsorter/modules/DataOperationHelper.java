@@ -1,5 +1,6 @@
 package top.chiloven.xamlsorter.modules;
 
+import top.chiloven.xamlsorter.entities.CategoryIds;
 import top.chiloven.xamlsorter.entities.DataItem;
 import top.chiloven.xamlsorter.ui.MainPage;
 import top.chiloven.xamlsorter.utils.ShowAlert;
@@ -26,52 +27,57 @@ public class DataOperationHelper {
     }
 
     /**
-     * Applies updates to a specific column in the grouped data.
+     * Applies updates to a specific column in the store.
+     * Each update is matched by a single key lookup, so the cost grows with the number of updates, not the project size.
+     * All updates run as one {@link TranslationStore#bulkUpdate(Runnable) bulk update}.
+     * The table is refreshed once all updates are applied.
      * This method processes data in a background thread and updates the UI in the JavaFX application thread.
      *
      * @param updates the list of DataItem updates to apply
-     * @param grouped the map containing grouped data by category
+     * @param store   the store holding the project's entries
      * @param column  the column to update ("original" or "translated")
      */
-    public static void applyColumnUpdates(List<DataItem> updates, Map<String, List<DataItem>> grouped, String column) {
+    public static void applyColumnUpdates(List<DataItem> updates, TranslationStore store, String column) {
         logger.info("Importing updates for column: {}", column);
 
         TaskExecutorService.executeTask(
                 "ColumnUpdate-" + column,
                 () -> {
-                    // Flatten all the grouped data into "key → DataItem" map
-                    Map<String, DataItem> existingMap = grouped.values().stream()
-                            .flatMap(List::stream)
-                            .collect(Collectors.toMap(DataItem::getKey, item -> item, (a, b) -> a));
-
-                    for (DataItem update : updates) {
-                        String key = update.getKey();
-                        DataItem existing = existingMap.get(key);
-
-                        if (existing != null) {
-                            switch (column) {
-                                case "original" -> {
-                                    logger.trace("Updating original text for key: {}", key);
-                                    existing.setOriginalText(update.getOriginalText());
-                                }
-                                case "translated" -> {
-                                    logger.trace("Updating translated text for key: {}", key);
-                                    existing.setTranslatedText(update.getTranslatedText());
+                    // One transaction: look-ups and changes form one step, and bound cells are notified once at the end
+                    store.bulkUpdate(() -> {
+                        for (DataItem update : updates) {
+                            String key = update.getKey();
+                            DataItem existing = store.get(key);
+
+                            if (existing != null) {
+                                switch (column) {
+                                    case "original" -> {
+                                        logger.trace("Updating original text for key: {}", key);
+                                        existing.setOriginalText(update.getOriginalText());
+                                        mainPage.getJournal().recordSet(key, "ot", update.getOriginalText());
+                                    }
+                                    case "translated" -> {
+                                        logger.trace("Updating translated text for key: {}", key);
+                                        existing.setTranslatedText(update.getTranslatedText());
+                                        mainPage.getJournal().recordSet(key, "tt", update.getTranslatedText());
+                                    }
                                 }
+                            } else {
+                                String original = column.equals("original") ? update.getOriginalText() : "";
+                                String translated = column.equals("translated") ? update.getTranslatedText() : "";
+
+                                logger.trace("Adding new DataItem for key: {} in category: {}", key, update.getCategory());
+                                DataItem newItem = new DataItem(update.getCategory(), key, original, translated);
+                                store.add(newItem);
+                                mainPage.getJournal().recordAdd(newItem);
                             }
-                        } else {
-                            String original = column.equals("original") ? update.getOriginalText() : "";
-                            String translated = column.equals("translated") ? update.getTranslatedText() : "";
-
-                            logger.trace("Adding new DataItem for key: {} in category: {}", key, update.getCategory());
-                            DataItem newItem = new DataItem(update.getCategory(), key, original, translated);
-                            grouped.computeIfAbsent(update.getCategory(), k -> new ArrayList<>()).add(newItem);
                         }
-                    }
+                    });
 
-                    return grouped;
+                    return updates.size();
                 },
                 result -> {
+                    SortAndRefresher.refresh(mainPage.getDataTreeTable(), store);
                     mainPage.setModified(true);
                     logger.info("Column updates applied for column: {}", column);
                 },
@@ -94,9 +100,7 @@ public class DataOperationHelper {
                 () -> {
                     for (DataItem item : items) {
                         String key = item.getKey();
-                        String category = key != null && key.contains(".")
-                                ? key.substring(0, key.indexOf('.'))
-                                : key;
+                        String category = CategoryIds.categoryOf(key);
                         item.setCategory(category);
                         logger.debug("Set category '{}' for key '{}'.", category, key);
                     }
@@ -109,13 +113,13 @@ public class DataOperationHelper {
     }
 
     /**
-     * Adds a new entry to the grouped data.
+     * Adds a new entry to the store.
      * This method shows a dialog in the UI thread and processes data in a background thread.
      *
-     * @param groupedData the map containing grouped data by category
+     * @param store the store holding the project's entries
      */
-    public static void addEntry(Map<String, List<DataItem>> groupedData) {
-        logger.debug("addEntry called with groupedData size: {}", groupedData.size());
+    public static void addEntry(TranslationStore store) {
+        logger.debug("addEntry called with store size: {}", store.size());
         TextInputDialog dialog = new TextInputDialog();
 
         Scene scene = dialog.getDialogPane().getScene();
@@ -133,13 +137,11 @@ public class DataOperationHelper {
                 "AddEntry-" + newKey,
                 () -> {
                     logger.debug("Processing new key: {}", newKey);
-                    String category = newKey.contains(".") ? newKey.split("\\.")[0] : getLang("page.main.tree_table.item.uncategorized");
+                    String category = CategoryIds.categoryOf(newKey);
                     logger.debug("Determined category: {}", category);
 
-                    // Check if the key already exists in the grouped data
-                    boolean exists = groupedData.values().stream()
-                            .flatMap(List::stream)
-                            .anyMatch(item -> item.getKey().equals(newKey));
+                    // Check if the key already exists in the store
+                    boolean exists = store.contains(newKey);
                     logger.debug("Key '{}' exists: {}", newKey, exists);
 
                     return new Object[]{exists, category, newKey};
@@ -160,17 +162,18 @@ public class DataOperationHelper {
                         return;
                     }
 
-                    // If the key does not exist, create a new DataItem and add it to the grouped data
+                    // If the key does not exist, create a new DataItem and add it to the store
                     DataItem newItem = new DataItem(
                             category, key,
                             getLang("module.data_op.add_entry.default.original"),
                             getLang("module.data_op.add_entry.default.translated")
                     );
                     logger.debug("Created new DataItem: {}", newItem);
-                    groupedData.computeIfAbsent(category, k -> new ArrayList<>()).add(newItem);
-                    logger.debug("Added new DataItem to groupedData under category '{}'", category);
+                    store.add(newItem);
+                    mainPage.getJournal().recordAdd(newItem);
+                    logger.debug("Added new DataItem to store under category '{}'", category);
 
-                    SortAndRefresher.refresh(mainPage.getDataTreeTable(), mainPage.getGroupedData());
+                    SortAndRefresher.refresh(mainPage.getDataTreeTable(), store);
                     mainPage.setModified(true);
 
                     logger.info("Added new entry with key: {}", key);
@@ -180,27 +183,76 @@ public class DataOperationHelper {
         logger.debug("addEntry finished");
     }
 
+    /**
+     * Renames a group of entries by replacing their common key prefix, e.g. {@code Setup.Java} in
+     * {@code Setup.Java.Title} and {@code Setup.Java.Download.Button}. Entries move to the category of their new key.
+     * Nothing is renamed if a new key is already used by another entry.
+     * This method shows a dialog in the UI thread and processes data in a background thread.
+     *
+     * @param table  the TreeTableView to refresh afterwards
+     * @param store  the store holding the project's entries
+     * @param prefix the dotted key prefix of the group
+     */
+    public static void renamePrefix(TreeTableView<DataItem> table, TranslationStore store, String prefix) {
+        int count = store.countWithPrefix(prefix);
+        logger.debug("renamePrefix called for prefix '{}' with {} entries", prefix, count);
+        if (count == 0) return;
+
+        TextInputDialog dialog = new TextInputDialog(prefix);
+
+        Scene scene = dialog.getDialogPane().getScene();
+        I18n.applyDefaultFont(scene);
+
+        dialog.setTitle(getLang("module.data_op.rename_group.title"));
+        dialog.setHeaderText(getLang("module.data_op.rename_group.header", count, prefix));
+        Optional<String> result = dialog.showAndWait()
+                .map(String::trim)
+                .filter(newPrefix -> !newPrefix.isEmpty() && !newPrefix.equals(prefix));
+
+        result.ifPresent(newPrefix -> TaskExecutorService.executeTask(
+                "RenamePrefix-" + prefix,
+                () -> store.renamePrefix(prefix, newPrefix),
+                renamed -> {
+                    if (renamed > 0) {
+                        // Renames can move entries between categories, which the journal cannot replay
+                        mainPage.getJournal().requireFullSave();
+                        SortAndRefresher.refresh(table, store);
+                        mainPage.setModified(true);
+                        logger.info("Renamed prefix '{}' to '{}' in {} entries.", prefix, newPrefix, renamed);
+                    }
+                },
+                error -> {
+                    if (error instanceof IllegalStateException) {
+                        ShowAlert.warn(
+                                getLang("general.alert.warn"),
+                                getLang("module.data_op.rename_group.exception.alert.header"),
+                                getLang("module.data_op.rename_group.exception.alert.content", prefix, newPrefix)
+                        );
+                        logger.warn("Renaming prefix '{}' to '{}' refused: {}", prefix, newPrefix, error.getMessage());
+                    } else {
+                        logger.error("Error renaming prefix '{}' to '{}'", prefix, newPrefix, error);
+                    }
+                }
+        ));
+    }
+
     /**
      * Cuts the selected entries from the TreeTableView and copies them to the clipboard.
      * This method processes data in a background thread and updates the UI in the JavaFX application thread.
      *
-     * @param table       the TreeTableView containing the data items
-     * @param groupedData the map containing grouped data by category
+     * @param table the TreeTableView containing the data items
+     * @param store the store holding the project's entries
      * @see #copy(TreeTableView)
-     * @see #delete(TreeTableView, Map)
+     * @see #delete(TreeTableView, TranslationStore)
      */
-    public static void cut(TreeTableView<DataItem> table, Map<String, List<DataItem>> groupedData) {
-        logger.debug("cut called with groupedData size: {}", groupedData.size());
+    public static void cut(TreeTableView<DataItem> table, TranslationStore store) {
+        logger.debug("cut called with store size: {}", store.size());
+        BitSet rows = selectedRows(table, store);
 
         TaskExecutorService.executeTask(
                 "CutOperation",
                 () -> {
-                    List<TreeItem<DataItem>> selected = new ArrayList<>(table.getSelectionModel().getSelectedItems());
-                    logger.debug("Selected items count: {}", selected.size());
-                    List<DataItem> toCopy = selected.stream()
-                            .map(TreeItem::getValue)
-                            .filter(item -> item != null && !item.getKey().endsWith("..."))
-                            .collect(Collectors.toList());
+                    List<DataItem> toCopy = store.items(rows);
                     logger.debug("Items to copy: {}", toCopy.size());
 
                     if (!toCopy.isEmpty()) {
@@ -215,7 +267,7 @@ public class DataOperationHelper {
                 },
                 result -> {
                     if (result) {
-                        delete(table, groupedData);
+                        delete(table, store, rows);
                         logger.info("Cut finished (copied and deleted selected entries).");
                     }
                 },
@@ -232,16 +284,13 @@ public class DataOperationHelper {
      */
     public static void copy(TreeTableView<DataItem> table) {
         logger.debug("copy called");
+        TranslationStore store = mainPage.getStore();
+        BitSet rows = selectedRows(table, store);
 
         TaskExecutorService.executeTask(
                 "CopyOperation",
                 () -> {
-                    List<TreeItem<DataItem>> selected = new ArrayList<>(table.getSelectionModel().getSelectedItems());
-                    logger.debug("Selected items count: {}", selected.size());
-                    List<DataItem> toCopy = selected.stream()
-                            .map(TreeItem::getValue)
-                            .filter(item -> item != null && !item.getKey().endsWith("..."))
-                            .collect(Collectors.toList());
+                    List<DataItem> toCopy = store.items(rows);
                     logger.debug("Items to copy: {}", toCopy.size());
 
                     if (!toCopy.isEmpty()) {
@@ -262,50 +311,35 @@ public class DataOperationHelper {
     }
 
     /**
-     * Deletes the selected entries from the TreeTableView and updates the grouped data.
+     * Deletes the selected entries from the TreeTableView and the store.
      * This method processes data in a background thread and updates the UI in the JavaFX application thread.
      *
-     * @param table       the TreeTableView containing the data items
-     * @param groupedData the map containing grouped data by category
+     * @param table the TreeTableView containing the data items
+     * @param store the store holding the project's entries
      */
-    public static void delete(TreeTableView<DataItem> table, Map<String, List<DataItem>> groupedData) {
-        logger.debug("delete called with groupedData size: {}", groupedData.size());
+    public static void delete(TreeTableView<DataItem> table, TranslationStore store) {
+        logger.debug("delete called with store size: {}", store.size());
+        delete(table, store, selectedRows(table, store));
+    }
+
+    private static void delete(TreeTableView<DataItem> table, TranslationStore store, BitSet rows) {
+        if (rows.isEmpty()) {
+            logger.debug("No items selected for delete.");
+            return;
+        }
 
         TaskExecutorService.executeTask(
                 "DeleteOperation",
                 () -> {
-                    List<TreeItem<DataItem>> selected = new ArrayList<>(table.getSelectionModel().getSelectedItems());
-                    logger.debug("Selected items count: {}", selected.size());
-
-                    if (selected.isEmpty()) {
-                        logger.debug("No items selected for delete.");
-                        return 0;
-                    }
-
-                    int count = 0;
-                    for (TreeItem<DataItem> item : selected) {
-                        DataItem data = item.getValue();
-                        logger.trace("Processing item for delete: {}", data);
-                        if (data != null && !data.getKey().endsWith("...")) {
-                            List<DataItem> list = groupedData.get(data.getCategory());
-                            logger.trace("Found list for category '{}': {}", data.getCategory(), list != null);
-                            if (list != null) {
-                                list.remove(data);
-                                count++;
-                                logger.trace("Removed data from list. List size now: {}", list.size());
-                                if (list.isEmpty()) {
-                                    groupedData.remove(data.getCategory());
-                                    logger.trace("Removed empty category: {}", data.getCategory());
-                                }
-                            }
-                        }
+                    List<String> removed = store.remove(rows);
+                    for (String key : removed) {
+                        mainPage.getJournal().recordDelete(key);
                     }
-
-                    return count;
+                    return removed.size();
                 },
                 count -> {
                     if (count > 0) {
-                        SortAndRefresher.refresh(table, groupedData);
+                        SortAndRefresher.refresh(table, store);
                         mainPage.setModified(true);
                         logger.info("Deleted {} entries.", count);
                     }
@@ -314,15 +348,34 @@ public class DataOperationHelper {
         );
     }
 
+    /**
+     * Get the store rows of the selected entries, leaving out category and group rows.
+     * Must be called in the JavaFX application thread.
+     *
+     * @param table the TreeTableView to read the selection of
+     * @param store the store holding the project's entries
+     * @return the selected row ids
+     */
+    private static BitSet selectedRows(TreeTableView<DataItem> table, TranslationStore store) {
+        List<TreeItem<DataItem>> selected = table.getSelectionModel().getSelectedItems();
+        List<DataItem> items = new ArrayList<>(selected.size());
+        for (TreeItem<DataItem> item : selected) {
+            if (item != null) items.add(item.getValue());
+        }
+        BitSet rows = store.rowsOf(items);
+        logger.debug("Selected items count: {}, entries: {}", selected.size(), rows.cardinality());
+        return rows;
+    }
+
     /**
      * Pastes the clipboard content into the TreeTableView, adding new entries or updating existing ones.
      * This method processes data in a background thread and updates the UI in the JavaFX application thread.
      *
-     * @param table       the TreeTableView to paste data into
-     * @param groupedData the map containing grouped data by category
+     * @param table the TreeTableView to paste data into
+     * @param store the store holding the project's entries
      */
-    public static void paste(TreeTableView<DataItem> table, Map<String, List<DataItem>> groupedData) {
-        logger.debug("paste called with groupedData size: {}", groupedData.size());
+    public static void paste(TreeTableView<DataItem> table, TranslationStore store) {
+        logger.debug("paste called with store size: {}", store.size());
 
         TaskExecutorService.executeTask(
                 "PasteOperation",
@@ -335,33 +388,36 @@ public class DataOperationHelper {
                         return 0;
                     }
 
-                    for (DataItem clipboard : clipboardItems) {
-                        String key = clipboard.getKey();
-                        String category = key.contains(".") ? key.split("\\.")[0] : getLang("page.main.tree_table.item.uncategorized");
-                        logger.trace("Processing clipboard item with key: {}, category: {}", key, category);
-                        List<DataItem> dataItems = groupedData.computeIfAbsent(category, k -> new ArrayList<>());
-                        // Check if the key already exists
-                        Optional<DataItem> existingItemOpt = dataItems.stream()
-                                .filter(item -> item.getKey().equals(key))
-                                .findFirst();
-
-                        if (existingItemOpt.isPresent()) {
-                            // Replace existing content
-                            DataItem existingItem = existingItemOpt.get();
-                            logger.debug("Updating existing DataItem for key: {}", key);
-                            existingItem.setOriginalText(clipboard.getOriginalText());
-                            existingItem.setTranslatedText(clipboard.getTranslatedText());
-                        } else {
-                            logger.debug("Adding new DataItem for key: {}", key);
-                            dataItems.add(new DataItem(category, clipboard.getKey(), clipboard.getOriginalText(), clipboard.getTranslatedText()));
+                    // One transaction, so bound cells are notified once for the whole paste
+                    store.bulkUpdate(() -> {
+                        for (DataItem clipboard : clipboardItems) {
+                            String key = clipboard.getKey();
+                            String category = CategoryIds.categoryOf(key);
+                            logger.trace("Processing clipboard item with key: {}, category: {}", key, category);
+                            // Check if the key already exists
+                            DataItem existingItem = store.get(key);
+
+                            if (existingItem != null) {
+                                // Replace existing content
+                                logger.debug("Updating existing DataItem for key: {}", key);
+                                existingItem.setOriginalText(clipboard.getOriginalText());
+                                existingItem.setTranslatedText(clipboard.getTranslatedText());
+                                mainPage.getJournal().recordSet(key, "ot", clipboard.getOriginalText());
+                                mainPage.getJournal().recordSet(key, "tt", clipboard.getTranslatedText());
+                            } else {
+                                logger.debug("Adding new DataItem for key: {}", key);
+                                DataItem newItem = new DataItem(category, clipboard.getKey(), clipboard.getOriginalText(), clipboard.getTranslatedText());
+                                store.add(newItem);
+                                mainPage.getJournal().recordAdd(newItem);
+                            }
                         }
-                    }
+                    });
 
                     return clipboardItems.size();
                 },
                 count -> {
                     if (count > 0) {
-                        SortAndRefresher.refresh(table, groupedData);
+                        SortAndRefresher.refresh(table, store);
                         mainPage.setModified(true);
                         logger.info("Pasted {} entries.", count);
                     }
@@ -371,64 +427,57 @@ public class DataOperationHelper {
     }
 
     /**
-     * Selects all entries in the TreeTableView.
-     * This method processes data in a background thread and updates the UI in the JavaFX application thread.
+     * Selects all entries in the TreeTableView, leaving out category and group rows.
+     * The rows are collected from the expanded part of the tree and selected with one selection change.
+     * This method updates the UI in the JavaFX application thread.
      *
      * @param table the TreeTableView to select all entries in
      */
     public static void selectAll(TreeTableView<DataItem> table) {
         logger.debug("selectAll called on table: {}", table);
 
-        TaskExecutorService.executeTask(
-                "SelectAllOperation",
-                () -> {
-                    TreeItem<DataItem> root = table.getRoot();
-                    if (root == null) {
-                        return new ArrayList<Integer>();
-                    }
+        Platform.runLater(() -> {
+            TreeItem<DataItem> root = table.getRoot();
+            if (root == null) return;
 
-                    List<Integer> rowsToSelect = new ArrayList<>();
-                    collectLeafNodeRows(root, table, rowsToSelect);
-                    return rowsToSelect;
-                },
-                rowsToSelect -> {
-                    // Clear previous selections
-                    table.getSelectionModel().clearSelection();
-                    logger.trace("Cleared previous selections.");
-
-                    // Select all collected rows
-                    for (Integer row : rowsToSelect) {
-                        table.getSelectionModel().select(row);
-                    }
+            int[] rows = new int[Math.max(0, table.getExpandedItemCount())];
+            int count = collectEntryRows(root, table.isShowRoot() ? 0 : -1, rows, 0)[1];
 
-                    logger.info("Selected all entries in the TreeTableView.");
-                },
-                error -> logger.error("Error during select all operation", error)
-        );
+            table.getSelectionModel().clearSelection();
+            if (count == 0) return;
+            if (rows[count - 1] - rows[0] == count - 1) {
+                table.getSelectionModel().selectRange(rows[0], rows[count - 1] + 1);
+            } else {
+                table.getSelectionModel().selectIndices(rows[0], Arrays.copyOfRange(rows, 1, count));
+            }
+            logger.info("Selected all {} entries in the TreeTableView.", count);
+        });
     }
 
     /**
-     * Collects all leaf node rows in the TreeTableView.
+     * Collects the rows of all visible entries below a node, counting rows the way the TreeTableView does:
+     * a node's children follow it only while it is expanded.
      *
-     * @param node  the current TreeItem node to check
-     * @param table the TreeTableView to get row indices from
-     * @param rows  the list to collect row indices in
+     * @param node  the node whose children to visit
+     * @param index the row of the node
+     * @param rows  the array to collect row indices in
+     * @param count the number of rows collected so far
+     * @return the last row visited and the new number of collected rows
      */
-    private static void collectLeafNodeRows(TreeItem<DataItem> node, TreeTableView<DataItem> table, List<Integer> rows) {
-        logger.trace("collectLeafNodeRows called for node: {}", node != null ? node.getValue() : "null");
-        if (node == null) {
-            logger.debug("Node is null, returning.");
-            return;
-        }
-        if (node.isLeaf() && node.getValue() != null && !node.getValue().getKey().endsWith("...")) {
-            int row = table.getRow(node);
-            logger.trace("Collecting leaf node at row: {}, key: {}", row, node.getValue().getKey());
-            rows.add(row);
-        }
+    private static int[] collectEntryRows(TreeItem<DataItem> node, int index, int[] rows, int count) {
         for (TreeItem<DataItem> child : node.getChildren()) {
-            logger.trace("Recursing into child node: {}", child.getValue() != null ? child.getValue().getKey() : "null");
-            collectLeafNodeRows(child, table, rows);
+            index++;
+            DataItem item = child.getValue();
+            if (item != null && !item.getKey().endsWith("...") && count < rows.length) {
+                rows[count++] = index;
+            }
+            if (child.isExpanded() && !child.isLeaf()) {
+                int[] result = collectEntryRows(child, index, rows, count);
+                index = result[0];
+                count = result[1];
+            }
         }
+        return new int[]{index, count};
     }
 
     /**
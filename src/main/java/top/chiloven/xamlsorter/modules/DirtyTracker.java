@@ -0,0 +1,147 @@
+package top.chiloven.xamlsorter.modules;
+
+import top.chiloven.xamlsorter.entities.CategoryIds;
+
+import java.util.*;
+
+/**
+ * Tracks which entries and categories of a {@link TranslationStore} changed, so saving and derived caches can
+ * process only what changed since their last run instead of the whole project.
+ * <p>
+ * Every change advances a generation counter, and each category remembers the generation of its last change.
+ * A consumer remembers the {@link #generation()} it last processed and asks which categories changed since then,
+ * so any number of consumers can work at their own pace. The rows changed since the last {@link #markClean(long)},
+ * normally a save, are kept in a BitSet over row ids.
+ * All methods are thread-safe.
+ */
+public final class DirtyTracker {
+    private final BitSet dirtyRows = new BitSet();
+    private long[] categoryGenerations = new long[16];
+    private long generation = 0;
+    private long cleanGeneration = 0;
+
+    // =========================
+    // Recording, called by the store with its writer lock held
+    // =========================
+
+    synchronized void rowChanged(int row, int categoryId) {
+        generation++;
+        dirtyRows.set(row);
+        touch(categoryId);
+    }
+
+    synchronized void rowRemoved(int row, int categoryId) {
+        generation++;
+        dirtyRows.clear(row);
+        touch(categoryId);
+    }
+
+    synchronized void categoryChanged(int categoryId) {
+        generation++;
+        touch(categoryId);
+    }
+
+    /**
+     * Start over after the whole content was replaced: nothing is dirty, but every category counts as changed
+     * for consumers that last ran before.
+     */
+    synchronized void markLoaded() {
+        generation++;
+        Arrays.fill(categoryGenerations, generation);
+        dirtyRows.clear();
+        cleanGeneration = generation;
+    }
+
+    private void touch(int categoryId) {
+        if (categoryId < 0) return;
+        if (categoryId >= categoryGenerations.length) {
+            int capacity = Math.max(categoryId + 1, categoryGenerations.length * 2);
+            long[] grown = Arrays.copyOf(categoryGenerations, capacity);
+            // Categories first seen now count as changed for consumers that last ran before a reload
+            Arrays.fill(grown, categoryGenerations.length, capacity, cleanGeneration);
+            categoryGenerations = grown;
+        }
+        categoryGenerations[categoryId] = generation;
+    }
+
+    // =========================
+    // Queries
+    // =========================
+
+    /**
+     * Get the current generation. It grows with every change, so a consumer can remember it and later ask what
+     * changed since.
+     *
+     * @return the generation
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Check whether anything changed since the last {@link #markClean(long)}.
+     *
+     * @return true if there are unsaved changes
+     */
+    public synchronized boolean isDirty() {
+        return generation > cleanGeneration;
+    }
+
+    /**
+     * Get the number of entries added or changed since the last {@link #markClean(long)}.
+     *
+     * @return the dirty entry count
+     */
+    public synchronized int dirtyEntryCount() {
+        return dirtyRows.cardinality();
+    }
+
+    /**
+     * Get the rows added or changed since the last {@link #markClean(long)}.
+     *
+     * @return a copy of the dirty row ids
+     */
+    public synchronized BitSet dirtyRows() {
+        return (BitSet) dirtyRows.clone();
+    }
+
+    /**
+     * Check whether a category had entries added, changed or removed after a generation.
+     *
+     * @param category the category name
+     * @param since    the generation the consumer last processed
+     * @return true if the category changed
+     */
+    public synchronized boolean isCategoryChangedSince(String category, long since) {
+        int id = CategoryIds.idOf(category);
+        if (id < 0 || id >= categoryGenerations.length) return since < cleanGeneration;
+        return categoryGenerations[id] > since;
+    }
+
+    /**
+     * Get the categories that had entries added, changed or removed after a generation.
+     *
+     * @param since the generation the consumer last processed
+     * @return the names of the changed categories
+     */
+    public synchronized Set<String> categoriesChangedSince(long since) {
+        Set<String> changed = new HashSet<>();
+        for (int id = 0; id < categoryGenerations.length; id++) {
+            if (categoryGenerations[id] > since) changed.add(CategoryIds.nameOf(id));
+        }
+        return changed;
+    }
+
+    /**
+     * Mark the content up to a generation as clean, e.g. after it was saved.
+     * If changes were made after that generation, the dirty rows are kept, since it is unknown which of them
+     * the save included; they are cleared by the next save that catches up.
+     *
+     * @param savedGeneration the generation taken before the saved snapshot
+     */
+    public synchronized void markClean(long savedGeneration) {
+        if (savedGeneration <= cleanGeneration) return;
+        cleanGeneration = savedGeneration;
+        if (savedGeneration == generation) dirtyRows.clear();
+    }
+}
@@ -1,7 +1,10 @@
 package top.chiloven.xamlsorter.modules;
 
+import top.chiloven.xamlsorter.entities.CategoryIds;
 import top.chiloven.xamlsorter.entities.DataItem;
+import top.chiloven.xamlsorter.entities.EntryTable;
 import top.chiloven.xamlsorter.utils.ShowAlert;
+import top.chiloven.xamlsorter.utils.StringPool;
 import top.chiloven.xamlsorter.utils.TaskExecutorService;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -75,8 +78,9 @@ public class FileProcessor {
                                         key = "unnamed";
                                     }
 
-                                    String value = elem.getTextContent().trim();
-                                    String category = key.contains(".") ? key.split("\\.")[0] : getLang("page.main.tree_table.item.uncategorized");
+                                    key = StringPool.intern(key);
+                                    String value = StringPool.intern(elem.getTextContent().trim());
+                                    String category = CategoryIds.categoryOf(key);
                                     items.add(new DataItem(category, key, isTranslation ? "" : value, isTranslation ? value : ""));
                                     logger.trace("Extracted DataItem: category='{}', key='{}', value='{}'", category, key, value);
                                 }
@@ -104,17 +108,19 @@ public class FileProcessor {
      * @param fileType      file type string (e.g., "xaml", "json", etc.)
      * @param fieldToExport which field to export ("Original" or "Translated")
      * @param addComments   whether to add top-level comments
-     * @param groupedData   grouped data to export
+     * @param store         the store holding the entries to export
      * @throws IllegalArgumentException if the file type is unsupported
      */
-    public static void exportToFile(File file, String fileType, String fieldToExport, boolean addComments, Map<String, List<DataItem>> groupedData) throws IllegalArgumentException {
+    public static void exportToFile(File file, String fileType, String fieldToExport, boolean addComments, TranslationStore store) throws IllegalArgumentException {
         TaskExecutorService.executeTask(
                 "ExportToFile",
                 () -> {
                     try {
+                        EntryTable.Snapshot entries = store.snapshot();
+                        Map<String, int[]> groupedRows = SortEngine.sortCategories(entries.rowsByCategory());
                         switch (fileType.toLowerCase()) {
-                            case ".xaml" -> exportToXamlFile(file, fieldToExport, addComments, groupedData);
-                            case ".json" -> exportToJsonFile(file, fieldToExport, addComments, groupedData);
+                            case ".xaml" -> exportToXamlFile(file, fieldToExport, addComments, entries, groupedRows);
+                            case ".json" -> exportToJsonFile(file, fieldToExport, addComments, entries, groupedRows);
                             // case ".resx" -> exportToResxFile(...);
                             default -> throw new IllegalArgumentException("Unsupported file type: " + fileType);
                         }
@@ -146,11 +152,12 @@ public class FileProcessor {
      * @param file          target file
      * @param fieldToExport "Original" or "Translated"
      * @param addComments   whether to include top-level category comments
-     * @param groupedData   data grouped by category
+     * @param table         a snapshot of the entry values
+     * @param groupedRows   row ids grouped by category, in category order
      */
-    private static void exportToXamlFile(File file, String fieldToExport, boolean addComments, Map<String, List<DataItem>> groupedData) {
+    private static void exportToXamlFile(File file, String fieldToExport, boolean addComments, EntryTable.Snapshot table, Map<String, int[]> groupedRows) {
         logger.info("Starting export to XAML file: {} with fieldToExport='{}', addComments={}, group count={}",
-                file.getAbsolutePath(), fieldToExport, addComments, groupedData.size());
+                file.getAbsolutePath(), fieldToExport, addComments, groupedRows.size());
         try (PrintWriter writer = new PrintWriter(file)) {
             writer.println("<!-- " + getLang("module.file_proc.export_xaml.credits_comments") + " -->");
             writer.println("<ResourceDictionary");
@@ -160,22 +167,20 @@ public class FileProcessor {
             writer.println("    xml:space=\"preserve\">");
             writer.println();
 
-            Map<String, List<DataItem>> sortedGroups = new TreeMap<>(groupedData);
-            for (Map.Entry<String, List<DataItem>> entry : sortedGroups.entrySet()) {
+            int valueColumn = exportedColumn(fieldToExport);
+            for (Map.Entry<String, int[]> entry : groupedRows.entrySet()) {
                 String category = entry.getKey();
-                List<DataItem> sortedItems = entry.getValue().stream()
-                        .sorted(Comparator.comparing(DataItem::getKey))
-                        .toList();
+                int[] sortedRows = SortEngine.sortRowsByKey(table, category, entry.getValue());
 
-                logger.debug("Exporting category '{}', item count={}", category, sortedItems.size());
+                logger.debug("Exporting category '{}', item count={}", category, sortedRows.length);
 
                 if (addComments) {
                     writer.printf("    <!-- %s -->%n", category);
                 }
 
-                for (DataItem item : sortedItems) {
-                    String value = getLang("general.datatype.original").equalsIgnoreCase(fieldToExport) ? item.getOriginalText() : item.getTranslatedText();
-                    writer.printf("    <String x:Key=\"%s\">%s</String>%n", item.getKey(), escapeXml(value));
+                for (int row : sortedRows) {
+                    String value = table.get(row, valueColumn);
+                    writer.printf("    <String x:Key=\"%s\">%s</String>%n", table.get(row, EntryTable.KEY), escapeXml(value));
                 }
 
                 writer.println();
@@ -207,6 +212,18 @@ public class FileProcessor {
         }
     }
 
+    /**
+     * Resolves which column of the entry table an export writes.
+     *
+     * @param fieldToExport "Original" or "Translated"
+     * @return {@link EntryTable#ORIGINAL_TEXT} or {@link EntryTable#TRANSLATED_TEXT}
+     */
+    private static int exportedColumn(String fieldToExport) {
+        return getLang("general.datatype.original").equalsIgnoreCase(fieldToExport)
+                ? EntryTable.ORIGINAL_TEXT
+                : EntryTable.TRANSLATED_TEXT;
+    }
+
     /**
      * Escapes special XML characters in the input string to ensure valid XML output.
      *
@@ -229,29 +246,26 @@ public class FileProcessor {
      * @param file          target file
      * @param fieldToExport "Original" or "Translated"
      * @param addComments   whether to include top-level category comments
-     * @param groupedData   data grouped by category
+     * @param table         a snapshot of the entry values
+     * @param groupedRows   row ids grouped by category, in category order
      */
-    private static void exportToJsonFile(File file, String fieldToExport, boolean addComments, Map<String, List<DataItem>> groupedData) {
+    private static void exportToJsonFile(File file, String fieldToExport, boolean addComments, EntryTable.Snapshot table, Map<String, int[]> groupedRows) {
         logger.info("Starting export to JSON file: {} with fieldToExport='{}', addComments={}, group count={}",
-                file.getAbsolutePath(), fieldToExport, addComments, groupedData.size());
+                file.getAbsolutePath(), fieldToExport, addComments, groupedRows.size());
         try (PrintWriter writer = new PrintWriter(file)) {
             JsonObject rootObject = new JsonObject();
 
-            Map<String, List<DataItem>> sortedGroups = new TreeMap<>(groupedData);
-            for (Map.Entry<String, List<DataItem>> entry : sortedGroups.entrySet()) {
+            int valueColumn = exportedColumn(fieldToExport);
+            for (Map.Entry<String, int[]> entry : groupedRows.entrySet()) {
                 String category = entry.getKey();
-                List<DataItem> sortedItems = entry.getValue().stream()
-                        .sorted(Comparator.comparing(DataItem::getKey))
-                        .toList();
+                int[] sortedRows = SortEngine.sortRowsByKey(table, category, entry.getValue());
 
-                logger.debug("Exporting category '{}', item count={}", category, sortedItems.size());
+                logger.debug("Exporting category '{}', item count={}", category, sortedRows.length);
 
-                for (DataItem item : sortedItems) {
-                    String value = getLang("general.datatype.original").equalsIgnoreCase(fieldToExport)
-                            ? item.getOriginalText()
-                            : item.getTranslatedText();
+                for (int row : sortedRows) {
+                    String value = table.get(row, valueColumn);
 
-                    String key = item.getKey();
+                    String key = table.get(row, EntryTable.KEY);
 
                     rootObject.addProperty(key, value);
                     logger.trace("Exported DataItem to JSON: key='{}', value='{}'", key, value);
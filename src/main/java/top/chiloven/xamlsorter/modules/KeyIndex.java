@@ -0,0 +1,124 @@
+package top.chiloven.xamlsorter.modules;
+
+import top.chiloven.xamlsorter.entities.EntryTable;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash index from entry key to row id of an {@link EntryTable}.
+ * Only row ids are stored; keys are read back from the table's key column, so the index costs a few bytes
+ * per entry instead of a map node, a boxed Integer and a table slot.
+ * A row must be removed from the index before its key changes, because its slot is found by the key's hash.
+ * Not thread-safe; {@link TranslationStore} guards it.
+ */
+class KeyIndex {
+    private static final int EMPTY = -1;
+    private static final int DELETED = -2;
+
+    private final EntryTable table;
+    private int[] slots = newSlots(16);
+    private int size = 0;
+    private int used = 0;
+
+    KeyIndex(EntryTable table) {
+        this.table = table;
+    }
+
+    private static int[] newSlots(int capacity) {
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Find the row of a key.
+     *
+     * @param key the key
+     * @return the row id, or -1 if the key is not indexed
+     */
+    int find(String key) {
+        if (key == null) return -1;
+        int mask = slots.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int row = slots[i];
+            if (row == EMPTY) return -1;
+            if (row >= 0 && key.equals(table.get(row, EntryTable.KEY))) return row;
+        }
+    }
+
+    /**
+     * Index a row under its current key unless the key is already indexed.
+     *
+     * @param row the row id
+     * @return true if the row was indexed, false if another row already has the key
+     */
+    boolean putIfAbsent(int row) {
+        String key = table.get(row, EntryTable.KEY);
+        if (key == null) return true;
+        if (find(key) >= 0) return false;
+        if ((used + 1) * 4L >= slots.length * 3L) rehash();
+        int mask = slots.length - 1;
+        int i = hash(key) & mask;
+        while (slots[i] >= 0) i = (i + 1) & mask;
+        if (slots[i] == EMPTY) used++;
+        slots[i] = row;
+        size++;
+        return true;
+    }
+
+    /**
+     * Remove a row from the index. The key must still be the one the row was indexed under.
+     *
+     * @param key the row's key
+     * @param row the row id
+     * @return true if the row was indexed under the key
+     */
+    boolean remove(String key, int row) {
+        if (key == null) return false;
+        int mask = slots.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int slot = slots[i];
+            if (slot == EMPTY) return false;
+            if (slot == row) {
+                slots[i] = DELETED;
+                size--;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Remove all rows from the index.
+     */
+    void clear() {
+        slots = newSlots(16);
+        size = 0;
+        used = 0;
+    }
+
+    private void rehash() {
+        int[] old = slots;
+        // Grow only when live rows fill the table; otherwise rehashing just clears the deleted markers
+        int capacity = old.length;
+        while ((size + 1) * 2L >= capacity) capacity *= 2;
+        slots = newSlots(capacity);
+        used = 0;
+        size = 0;
+        int mask = slots.length - 1;
+        for (int row : old) {
+            if (row < 0) continue;
+            String key = table.get(row, EntryTable.KEY);
+            if (key == null) continue;
+            size++;
+            int i = hash(key) & mask;
+            while (slots[i] != EMPTY) i = (i + 1) & mask;
+            slots[i] = row;
+            used++;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package top.chiloven.xamlsorter.modules;
+
+import java.util.*;
+
+/**
+ * Compressed trie of entry keys split on '.', mapping every key prefix to the rows below it.
+ * Each edge carries one or more key segments, so a chain of single-child levels such as
+ * {@code Setup.Java.Download} takes one node. Every node counts the rows in its subtree, so counting the keys
+ * under a prefix costs O(prefix) and listing them O(prefix + results).
+ * <p>
+ * Prefixes are matched on whole segments: {@code Setup.Java} matches {@code Setup.Java} and
+ * {@code Setup.Java.Title}, but not {@code Setup.JavaFX.Title}.
+ * Children keep the order in which they were first inserted.
+ * Not thread-safe; {@link TranslationStore} guards it.
+ */
+class KeyTrie {
+    private static final int[] NO_ROWS = new int[0];
+
+    private final Node root = new Node(new String[0]);
+
+    /**
+     * Split a key or prefix into its segments. A trailing '.' of a prefix is ignored.
+     *
+     * @param key the key, may be null or empty
+     * @return the segments; empty for the empty prefix
+     */
+    static String[] split(String key) {
+        if (key == null || key.isEmpty()) return new String[0];
+        int end = key.endsWith(".") ? key.length() - 1 : key.length();
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < end; i++) {
+            if (key.charAt(i) == '.') {
+                segments.add(key.substring(start, i));
+                start = i + 1;
+            }
+        }
+        segments.add(key.substring(start, end));
+        return segments.toArray(new String[0]);
+    }
+
+    /**
+     * Add a row under its key.
+     *
+     * @param row the row id
+     * @param key the key of the row
+     */
+    void insert(int row, String key) {
+        String[] segments = split(key);
+        Node node = root;
+        node.count++;
+        int i = 0;
+        while (i < segments.length) {
+            Node child = node.child(segments[i]);
+            if (child == null) {
+                child = new Node(Arrays.copyOfRange(segments, i, segments.length));
+                node.putChild(child);
+                i = segments.length;
+            } else {
+                int common = commonLength(child.label, segments, i);
+                if (common < child.label.length) child = splitEdge(node, child, common);
+                i += common;
+            }
+            node = child;
+            node.count++;
+        }
+        node.addRow(row);
+    }
+
+    /**
+     * Remove a row from under its key.
+     *
+     * @param row the row id
+     * @param key the key the row was inserted with
+     * @return true if the row was found
+     */
+    boolean remove(int row, String key) {
+        String[] segments = split(key);
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < segments.length) {
+            Node child = node.child(segments[i]);
+            if (child == null) return false;
+            int common = commonLength(child.label, segments, i);
+            if (common < child.label.length) return false;
+            i += common;
+            node = child;
+            path.add(node);
+        }
+        if (!node.removeRow(row)) return false;
+
+        for (Node onPath : path) onPath.count--;
+        // Drop empty nodes and merge nodes left with a single child, bottom-up
+        for (int k = path.size() - 1; k > 0; k--) {
+            Node current = path.get(k);
+            Node parent = path.get(k - 1);
+            if (current.count == 0) {
+                parent.removeChild(current);
+            } else if (current.rowCount == 0 && current.children != null && current.children.size() == 1) {
+                Node only = current.children.values().iterator().next();
+                String[] merged = Arrays.copyOf(current.label, current.label.length + only.label.length);
+                System.arraycopy(only.label, 0, merged, current.label.length, only.label.length);
+                only.label = merged;
+                parent.putChild(only);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove all keys.
+     */
+    void clear() {
+        root.children = null;
+        root.rows = NO_ROWS;
+        root.rowCount = 0;
+        root.count = 0;
+    }
+
+    /**
+     * Count the rows whose key is the prefix or starts with it.
+     *
+     * @param prefix the dotted prefix; empty for all keys
+     * @return the row count
+     */
+    int count(String prefix) {
+        Node node = find(split(prefix));
+        return node != null ? node.count : 0;
+    }
+
+    /**
+     * Get the rows whose key is the prefix or starts with it.
+     *
+     * @param prefix the dotted prefix; empty for all keys
+     * @return the row ids, in trie order
+     */
+    int[] rows(String prefix) {
+        Node node = find(split(prefix));
+        if (node == null) return NO_ROWS;
+        int[] rows = new int[node.count];
+        collect(node, rows, 0);
+        return rows;
+    }
+
+    /**
+     * Get the node whose subtree holds exactly the keys under a prefix.
+     *
+     * @param prefix the dotted prefix; empty for the root
+     * @return the node, or null if no key has the prefix
+     */
+    Node node(String prefix) {
+        return find(split(prefix));
+    }
+
+    private Node find(String[] segments) {
+        Node node = root;
+        int i = 0;
+        while (i < segments.length) {
+            Node child = node.child(segments[i]);
+            if (child == null) return null;
+            int common = commonLength(child.label, segments, i);
+            if (i + common == segments.length) return child;
+            if (common < child.label.length) return null;
+            i += common;
+            node = child;
+        }
+        return node;
+    }
+
+    private static int collect(Node node, int[] into, int at) {
+        System.arraycopy(node.rows, 0, into, at, node.rowCount);
+        at += node.rowCount;
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                at = collect(child, into, at);
+            }
+        }
+        return at;
+    }
+
+    private static int commonLength(String[] label, String[] segments, int from) {
+        int max = Math.min(label.length, segments.length - from);
+        int common = 0;
+        while (common < max && label[common].equals(segments[from + common])) common++;
+        return common;
+    }
+
+    /**
+     * Split the edge into {@code child} after {@code at} segments and return the new middle node.
+     */
+    private static Node splitEdge(Node parent, Node child, int at) {
+        Node middle = new Node(Arrays.copyOf(child.label, at));
+        middle.count = child.count;
+        child.label = Arrays.copyOfRange(child.label, at, child.label.length);
+        middle.putChild(child);
+        parent.putChild(middle);
+        return middle;
+    }
+
+    /**
+     * A trie node: the segments of the edge leading to it, the rows whose key ends here and the subtree size.
+     */
+    static final class Node {
+        private String[] label;
+        private LinkedHashMap<String, Node> children;
+        private int[] rows = NO_ROWS;
+        private int rowCount = 0;
+        private int count = 0;
+
+        private Node(String[] label) {
+            this.label = label;
+        }
+
+        /**
+         * Get the key segments of the edge leading to this node, joined with '.'.
+         *
+         * @return the edge label
+         */
+        String label() {
+            return String.join(".", label);
+        }
+
+        /**
+         * Get the number of rows in this subtree.
+         *
+         * @return the row count
+         */
+        int count() {
+            return count;
+        }
+
+        /**
+         * Get the rows whose key ends at this node.
+         *
+         * @return a copy of the row ids
+         */
+        int[] rows() {
+            return Arrays.copyOf(rows, rowCount);
+        }
+
+        /**
+         * Get all rows of this subtree.
+         *
+         * @return the row ids, in trie order
+         */
+        int[] subtreeRows() {
+            int[] all = new int[count];
+            collect(this, all, 0);
+            return all;
+        }
+
+        /**
+         * Get the child nodes in insertion order.
+         *
+         * @return the children
+         */
+        Collection<Node> children() {
+            return children != null ? children.values() : List.of();
+        }
+
+        private Node child(String segment) {
+            return children != null ? children.get(segment) : null;
+        }
+
+        private void putChild(Node child) {
+            if (children == null) children = new LinkedHashMap<>(4);
+            children.put(child.label[0], child);
+        }
+
+        private void removeChild(Node child) {
+            children.remove(child.label[0]);
+            if (children.isEmpty()) children = null;
+        }
+
+        private void addRow(int row) {
+            if (rowCount == rows.length) rows = Arrays.copyOf(rows, Math.max(1, rowCount * 2));
+            rows[rowCount++] = row;
+        }
+
+        private boolean removeRow(int row) {
+            for (int i = 0; i < rowCount; i++) {
+                if (rows[i] == row) {
+                    System.arraycopy(rows, i + 1, rows, i, rowCount - i - 1);
+                    rowCount--;
+                    if (rowCount == 0) rows = NO_ROWS;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package top.chiloven.xamlsorter.modules;
+
+import top.chiloven.xamlsorter.entities.DataItem;
+import javafx.scene.control.TreeItem;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A tree node whose children are only created while it is expanded.
+ * The children are built by a loader when the node is first expanded and dropped again when it collapses,
+ * so a collapsed category with many entries costs one node instead of one per entry.
+ * It is always shown as expandable as long as the loader has children to offer.
+ */
+class LazyTreeItem extends TreeItem<DataItem> {
+    private Supplier<List<TreeItem<DataItem>>> loader;
+    private int size;
+    private boolean loaded = false;
+
+    /**
+     * Create a node. An expanded node loads its children right away, in the calling thread.
+     *
+     * @param value    the value of the node
+     * @param size     the number of entries the loader provides, for showing the node as expandable
+     * @param loader   builds the children; called again after every collapse and expansion
+     * @param expanded whether the node starts expanded
+     */
+    LazyTreeItem(DataItem value, int size, Supplier<List<TreeItem<DataItem>>> loader, boolean expanded) {
+        super(value);
+        this.loader = loader;
+        this.size = size;
+        if (expanded) {
+            load();
+            setExpanded(true);
+        }
+        expandedProperty().addListener((observable, wasExpanded, isExpanded) -> {
+            if (isExpanded) load();
+            else release();
+        });
+    }
+
+    @Override
+    public boolean isLeaf() {
+        return size == 0;
+    }
+
+    /**
+     * Check whether the children currently exist.
+     *
+     * @return true if the children were loaded and not released since
+     */
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Get the children of this node, building them with the loader if they are not loaded.
+     * Children built this way are not added to the node.
+     *
+     * @return the children
+     */
+    List<TreeItem<DataItem>> children() {
+        return loaded ? getChildren() : loader.get();
+    }
+
+    /**
+     * Take over the loader of a newer node for the same value, e.g. when the tree is refreshed.
+     * Loaded children are left as they are; the caller brings them up to date.
+     *
+     * @param newer the newer node
+     */
+    void update(LazyTreeItem newer) {
+        loader = newer.loader;
+        size = newer.size;
+    }
+
+    private void load() {
+        if (loaded) return;
+        loaded = true;
+        getChildren().setAll(loader.get());
+    }
+
+    private void release() {
+        if (!loaded) return;
+        loaded = false;
+        getChildren().clear();
+    }
+}
@@ -1,6 +1,7 @@
 package top.chiloven.xamlsorter.modules;
 
 import top.chiloven.xamlsorter.modules.preferences.Language;
+import top.chiloven.xamlsorter.modules.preferences.SortMode;
 import top.chiloven.xamlsorter.modules.preferences.ThemeMode;
 import top.chiloven.xamlsorter.utils.ShowAlert;
 import com.jthemedetecor.OsThemeDetector;
@@ -206,6 +207,131 @@ public class PreferencesManager {
         }
     }
 
+    /**
+     * Get the autosave interval.
+     *
+     * @return the interval in seconds, or 0 if autosave is disabled; defaults to 60
+     */
+    public static int getAutosaveInterval() {
+        String interval = get("autosave.interval", "60");
+        try {
+            return Math.max(0, Integer.parseInt(interval.trim()));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid autosave interval: {}, defaulting to 60 seconds", interval);
+            return 60;
+        }
+    }
+
+    /**
+     * Check whether large project files are decoded category by category in parallel.
+     *
+     * @return true unless the "loader.parallel" preference is set to false
+     */
+    public static boolean isParallelLoadingEnabled() {
+        return Boolean.parseBoolean(get("loader.parallel", "true"));
+    }
+
+    /**
+     * Get the entry count from which a loaded project keeps its texts in a memory-mapped file instead of the heap.
+     *
+     * @return the threshold, or 0 if off-heap storage is disabled; defaults to 500000
+     */
+    public static int getOffHeapThreshold() {
+        String threshold = get("storage.offheap.threshold", "500000");
+        try {
+            return Math.max(0, Integer.parseInt(threshold.trim()));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid off-heap threshold: {}, defaulting to 500000 entries", threshold);
+            return 500000;
+        }
+    }
+
+    /**
+     * Get how categories and keys are ordered.
+     * This will return ORDINAL if the mode is not set or invalid.
+     *
+     * @return the current SortMode, defaults to ORDINAL if not set or invalid
+     */
+    public static SortMode getSortMode() {
+        String mode = get("sort.mode", SortMode.ORDINAL.name());
+        try {
+            return SortMode.valueOf(mode);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid sort mode: {}, defaulting to ORDINAL", mode);
+            return SortMode.ORDINAL;
+        }
+    }
+
+    /**
+     * Set the sort mode preference.
+     *
+     * @param mode the SortMode to set
+     */
+    public static void setSortMode(SortMode mode) {
+        set("sort.mode", mode.name());
+        save();
+    }
+
+    /**
+     * Check whether keys are shown as nested groups, one level per '.' separated segment,
+     * instead of a flat list under their category.
+     *
+     * @return true if the "tree.nested" preference is set to true; defaults to false
+     */
+    public static boolean isNestedKeysEnabled() {
+        return Boolean.parseBoolean(get("tree.nested", "false"));
+    }
+
+    /**
+     * Set whether keys are shown as nested groups.
+     *
+     * @param enabled true to show nested groups
+     */
+    public static void setNestedKeysEnabled(boolean enabled) {
+        set("tree.nested", String.valueOf(enabled));
+        save();
+    }
+
+    /**
+     * Check whether categories start collapsed, so their entries only get tree nodes once they are expanded.
+     * Meant for large projects.
+     *
+     * @return true if the "tree.collapsed" preference is set to true; defaults to false
+     */
+    public static boolean isCategoriesCollapsed() {
+        return Boolean.parseBoolean(get("tree.collapsed", "false"));
+    }
+
+    /**
+     * Set whether categories start collapsed.
+     *
+     * @param collapsed true to start categories collapsed
+     */
+    public static void setCategoriesCollapsed(boolean collapsed) {
+        set("tree.collapsed", String.valueOf(collapsed));
+        save();
+    }
+
+    /**
+     * Check whether all rows have the same height and show a one-line preview of their texts,
+     * instead of growing with multi-line texts.
+     *
+     * @return true if the "tree.fixed_row_height" preference is set to true; defaults to false
+     */
+    public static boolean isFixedRowHeight() {
+        return Boolean.parseBoolean(get("tree.fixed_row_height", "false"));
+    }
+
+    /**
+     * Set whether all rows have the same height.
+     *
+     * @param fixed true for rows of a fixed height
+     */
+    public static void setFixedRowHeight(boolean fixed) {
+        set("tree.fixed_row_height", String.valueOf(fixed));
+        save();
+    }
+
     /**
      * Get the current language setting
      *
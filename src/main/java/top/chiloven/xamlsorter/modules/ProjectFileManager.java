@@ -2,7 +2,9 @@ package top.chiloven.xamlsorter.modules;
 
 import top.chiloven.xamlsorter.entities.DataItem;
 import top.chiloven.xamlsorter.entities.ProjectMeta;
+import top.chiloven.xamlsorter.modules.journal.ProjectJournal;
 import top.chiloven.xamlsorter.utils.ShowAlert;
+import top.chiloven.xamlsorter.utils.StringPool;
 import top.chiloven.xamlsorter.utils.TaskExecutorService;
 import javafx.application.Platform;
 import org.apache.logging.log4j.LogManager;
@@ -10,19 +12,21 @@ import org.apache.logging.log4j.Logger;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.Set;
+import java.util.zip.CRC32C;
 
 import static top.chiloven.xamlsorter.modules.I18n.getLang;
 
@@ -30,116 +34,95 @@ public class ProjectFileManager {
     private static final Logger logger = LogManager.getLogger(ProjectFileManager.class);
 
     /**
-     * Saves the current project state to a .xsproject XML file.
-     * This method processes data in a background thread and updates the UI in the JavaFX application thread.
+     * Files at least this large are decoded category by category in parallel.
+     */
+    private static final long PARALLEL_LOAD_THRESHOLD = 256 * 1024;
+
+    /**
+     * Writes the project state to a .xsproject XML file, or to a sharded project if {@code file} is a manifest.
+     * This method runs on the calling thread and does not show any alert.
      *
-     * @param file          the file to save the project to
+     * @param file          the file to write the project to
      * @param meta          the ProjectMeta object containing project metadata
      * @param items         the list of DataItem objects representing the project data
      * @param clipboardKeys the list of keys currently in the clipboard
+     * @throws Exception if the document cannot be built or written
      */
-    public static CompletableFuture<Boolean> saveXsProject(File file, ProjectMeta meta, List<DataItem> items, List<String> clipboardKeys) {
-        logger.debug("Starting saveXsProject for file: {}", file.getAbsolutePath());
-
-        return TaskExecutorService.submitTask(
-                "SaveXsProject",
-                () -> {
-                    try {
-                        DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-                        DocumentBuilder builder = docFactory.newDocumentBuilder();
-                        Document doc = builder.newDocument();
-
-                        Element root = doc.createElement("XsProject");
-                        doc.appendChild(root);
-
-                        // Meta
-                        logger.debug("Writing project meta information.");
-                        Element metaNode = doc.createElement("Meta");
-                        Element nameNode = doc.createElement("Name");
-                        nameNode.setTextContent(meta.getName());
-                        metaNode.appendChild(nameNode);
-                        Element descNode = doc.createElement("Description");
-                        descNode.setTextContent(meta.getDescription());
-                        metaNode.appendChild(descNode);
-                        Element authorNode = doc.createElement("Author");
-                        authorNode.setTextContent(meta.getAuthor());
-                        metaNode.appendChild(authorNode);
-                        root.appendChild(metaNode);
-
-                        // Clipboard (with full data)
-                        logger.debug("Writing clipboard items. Clipboard size: {}", clipboardKeys.size());
-                        Element clipboardElem = doc.createElement("Clipboard");
-                        for (String key : clipboardKeys) {
-                            DataItem found = items.stream().filter(i -> i.getKey().equals(key)).findFirst().orElse(null);
-                            if (found != null) {
-                                Element iElem = doc.createElement("I");
-                                iElem.setAttribute("k", found.getKey());
-                                iElem.setAttribute("ot", found.getOriginalText());
-                                iElem.setAttribute("tt", found.getTranslatedText());
-                                clipboardElem.appendChild(iElem);
-                                logger.trace("Added clipboard item: key={}", found.getKey());
-                            } else {
-                                logger.warn("Clipboard key '{}' not found in items list.", key);
-                            }
-                        }
-                        root.appendChild(clipboardElem);
-
-                        // Data (grouped by category)
-                        logger.debug("Grouping data items by category.");
-                        Element dataElem = doc.createElement("Data");
-                        // Group items by category
-                        Map<String, List<DataItem>> grouped = items.stream().collect(
-                                java.util.stream.Collectors.groupingBy(DataItem::getCategory)
-                        );
-                        for (Map.Entry<String, List<DataItem>> entry : grouped.entrySet()) {
-                            Element cElem = doc.createElement("C");
-                            cElem.setAttribute("c", entry.getKey());
-                            logger.trace("Writing category: {}", entry.getKey());
-                            for (DataItem item : entry.getValue()) {
-                                Element iElem = doc.createElement("I");
-                                iElem.setAttribute("k", item.getKey());
-                                iElem.setAttribute("ot", item.getOriginalText());
-                                iElem.setAttribute("tt", item.getTranslatedText());
-                                cElem.appendChild(iElem);
-                                logger.trace("Added data item: key={} category={}", item.getKey(), item.getCategory());
-                            }
-                            dataElem.appendChild(cElem);
-                        }
-                        root.appendChild(dataElem);
-
-                        logger.debug("Transforming DOM to file: {}", file.getAbsolutePath());
-                        Transformer transformer = TransformerFactory.newInstance().newTransformer();
-                        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-                        DOMSource source = new DOMSource(doc);
-                        StreamResult result = new StreamResult(file);
-                        transformer.transform(source, result);
-
-                        Platform.runLater(() -> ShowAlert.info(
-                                getLang("module.proj_file_manager.save.success.alert.title"),
-                                getLang("module.proj_file_manager.save.success.alert.content")
-                        ));
-
-                        logger.info("Project saved successfully to {}", file.getAbsolutePath());
-                        return true;
-                    } catch (Exception e) {
-                        Platform.runLater(() -> ShowAlert.error(
-                                getLang("general.alert.error"),
-                                getLang("module.proj_file_manager.save.exception.alert.header"),
-                                getLang("module.proj_file_manager.save.exception.alert.content",
-                                        file.getAbsolutePath(),
-                                        e.getMessage()
-                                )
-                        ));
-
-                        logger.error("Failed to save project to {}: {}", file.getAbsolutePath(), e.getMessage(), e);
-                        throw new RuntimeException("Failed to save project to: " + file.getAbsolutePath(), e);
-                    }
+    public static void writeXsProject(File file, ProjectMeta meta, List<DataItem> items, List<String> clipboardKeys) throws Exception {
+        writeXsProject(file, meta, items, clipboardKeys, null);
+    }
+
+    /**
+     * Writes the project state to a .xsproject XML file, or to a sharded project if {@code file} is a manifest.
+     * When the changed categories are known, a sharded project keeps the shards of all other categories as they are.
+     * A .xsproject file is replaced atomically, so it holds either the old or the new project at any time.
+     * This method runs on the calling thread and does not show any alert.
+     *
+     * @param file              the file to write the project to
+     * @param meta              the ProjectMeta object containing project metadata
+     * @param items             the list of DataItem objects representing the project data
+     * @param clipboardKeys     the list of keys currently in the clipboard
+     * @param changedCategories the categories changed since the file was last written, or null if unknown
+     * @throws Exception if the document cannot be built or written
+     */
+    public static void writeXsProject(File file, ProjectMeta meta, List<DataItem> items, List<String> clipboardKeys,
+                                      Set<String> changedCategories) throws Exception {
+        if (ShardedProjectStore.isManifest(file)) {
+            ShardedProjectStore.write(file, meta, items, clipboardKeys, changedCategories);
+            return;
+        }
+
+        // Written next to the file and moved over it, so a crash never leaves a half-written base for the journal
+        logger.debug("Writing project to file: {}", file.getAbsolutePath());
+        File tmp = new File(file.getPath() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            out.write("<XsProject>\n");
+
+            // Meta
+            logger.debug("Writing project meta information.");
+            out.write("    <Meta>\n");
+            out.write("        <Name>" + escape(meta.getName()) + "</Name>\n");
+            out.write("        <Description>" + escape(meta.getDescription()) + "</Description>\n");
+            out.write("        <Author>" + escape(meta.getAuthor()) + "</Author>\n");
+            out.write("    </Meta>\n");
+
+            // Clipboard (with full data)
+            logger.debug("Writing clipboard items. Clipboard size: {}", clipboardKeys.size());
+            out.write("    <Clipboard>\n");
+            for (String key : clipboardKeys) {
+                DataItem found = items.stream().filter(i -> i.getKey().equals(key)).findFirst().orElse(null);
+                if (found != null) {
+                    out.write("        " + itemXml(found) + "\n");
+                    logger.trace("Added clipboard item: key={}", found.getKey());
+                } else {
+                    logger.warn("Clipboard key '{}' not found in items list.", key);
                 }
-        );
+            }
+            out.write("    </Clipboard>\n");
+
+            // Data (grouped by category)
+            logger.debug("Grouping data items by category.");
+            out.write("    <Data>\n");
+            Map<String, List<DataItem>> grouped = items.stream().collect(
+                    java.util.stream.Collectors.groupingBy(DataItem::getCategory)
+            );
+            for (Map.Entry<String, List<DataItem>> entry : grouped.entrySet()) {
+                logger.trace("Writing category: {}", entry.getKey());
+                String body = categoryBody(entry.getValue(), "        ");
+                out.write("        <C c=\"" + escape(entry.getKey()) + "\" bcrc=\"" + categoryChecksum(body) + "\">");
+                out.write(body);
+                out.write("</C>\n");
+            }
+            out.write("    </Data>\n");
+            out.write("</XsProject>\n");
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     }
 
     /**
      * Loads a project from a .xsproject XML file.
+     * Entries left in the project's edit journal are replayed on top of the loaded data.
      * This method processes data in a background thread but waits for the result.
      *
      * @param file the file to load the project from
@@ -153,69 +136,18 @@ public class ProjectFileManager {
                     "LoadXsProject",
                     () -> {
                         try {
-                            List<DataItem> items = new ArrayList<>();
-                            List<DataItem> clipboardItems = new ArrayList<>();
-                            ProjectMeta meta = new ProjectMeta();
-
-                            logger.debug("Creating DocumentBuilder and parsing XML file.");
-                            DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-                            Document doc = builder.parse(file);
-                            doc.getDocumentElement().normalize();
-
-                            Element root = doc.getDocumentElement();
-
-                            // Parse meta info
-                            logger.debug("Parsing project meta information.");
-                            NodeList metaList = root.getElementsByTagName("Meta");
-                            if (metaList.getLength() > 0) {
-                                Element metaNode = (Element) metaList.item(0);
-                                meta.setName(getElementText(metaNode, "Name"));
-                                meta.setDescription(getElementText(metaNode, "Description"));
-                                meta.setAuthor(getElementText(metaNode, "Author"));
-                                logger.debug("Meta loaded: name={}, description={}, author={}", meta.getName(), meta.getDescription(), meta.getAuthor());
-                            }
-
-                            // Parse Clipboard: <Clipboard><I k="" ot="" tt=""/></Clipboard>
-                            logger.debug("Parsing clipboard items.");
-                            NodeList clipboardList = root.getElementsByTagName("Clipboard");
-                            if (clipboardList.getLength() > 0) {
-                                Element clipboardElem = (Element) clipboardList.item(0);
-                                NodeList iNodes = clipboardElem.getElementsByTagName("I");
-                                for (int i = 0; i < iNodes.getLength(); i++) {
-                                    Element iElem = (Element) iNodes.item(i);
-                                    String key = iElem.getAttribute("k");
-                                    String original = iElem.getAttribute("ot");
-                                    String translated = iElem.getAttribute("tt");
-                                    clipboardItems.add(new DataItem("", key, original, translated));
-                                    logger.trace("Loaded clipboard item: key={}", key);
-                                }
+                            LoadedProject loaded = readXsProject(file);
+                            if (!loaded.damagedCategories().isEmpty()) {
+                                reportDamagedCategories(file, loaded.damagedCategories());
                             }
 
-                            // Parse Data: <Data><C c=""><I .../></C></Data>
-                            logger.debug("Parsing data items by category.");
-                            NodeList dataList = root.getElementsByTagName("Data");
-                            if (dataList.getLength() > 0) {
-                                Element dataElem = (Element) dataList.item(0);
-                                NodeList cNodes = dataElem.getElementsByTagName("C");
-                                for (int i = 0; i < cNodes.getLength(); i++) {
-                                    Element cElem = (Element) cNodes.item(i);
-                                    String category = cElem.getAttribute("c");
-                                    NodeList iNodes = cElem.getElementsByTagName("I");
-                                    for (int j = 0; j < iNodes.getLength(); j++) {
-                                        Element iElem = (Element) iNodes.item(j);
-                                        String key = iElem.getAttribute("k");
-                                        String original = iElem.getAttribute("ot");
-                                        String translated = iElem.getAttribute("tt");
-                                        items.add(new DataItem(category, key, original, translated));
-                                    }
-                                }
+                            int replayed = ProjectJournal.replay(file, loaded.items());
+                            if (replayed > 0) {
+                                logger.info("Replayed {} journal entries for {}", replayed, file.getAbsolutePath());
                             }
 
-                            // Returning clipboard keys as a list of strings
-                            List<String> clipboardKeys = clipboardItems.stream().map(DataItem::getKey).collect(java.util.stream.Collectors.toList());
-
                             logger.info("Project loaded successfully from {}", file.getAbsolutePath());
-                            return new LoadedProject(meta, items, clipboardKeys);
+                            return loaded;
                         } catch (Exception e) {
                             Platform.runLater(() -> ShowAlert.error(
                                     getLang("general.alert.error"),
@@ -237,6 +169,226 @@ public class ProjectFileManager {
         }
     }
 
+    /**
+     * Keep a copy of a damaged project file and tell the user which categories were skipped.
+     * The copy is made before anything can overwrite the file, since the next full save drops the damaged categories.
+     *
+     * @param file    the damaged project file
+     * @param damaged the names of the categories that could not be loaded
+     */
+    private static void reportDamagedCategories(File file, List<String> damaged) {
+        File backup = new File(file.getPath() + ".damaged");
+        try {
+            Files.copy(file.toPath(), backup.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            logger.error("Failed to back up damaged project file {}", file.getAbsolutePath(), e);
+        }
+
+        logger.warn("Skipped {} damaged categories in {}: {}", damaged.size(), file.getAbsolutePath(), damaged);
+        Platform.runLater(() -> ShowAlert.warn(
+                getLang("general.alert.warn"),
+                getLang("module.proj_file_manager.load.damaged.alert.header"),
+                getLang("module.proj_file_manager.load.damaged.alert.content",
+                        file.getAbsolutePath(),
+                        String.join("\n", damaged),
+                        backup.getAbsolutePath()
+                )
+        ));
+    }
+
+    /**
+     * Reads a project from a .xsproject XML file or a sharded project manifest without replaying its edit journal.
+     * Large files are decoded in parallel by {@link ChunkedProjectReader} unless disabled in the preferences.
+     * If the file is not well-formed, the categories that are still intact are recovered chunk by chunk.
+     * This method runs on the calling thread and does not show any alert.
+     *
+     * @param file the file to read the project from
+     * @return LoadedProject containing the project name, items, and clipboard keys
+     * @throws Exception if the file cannot be read or parsed
+     */
+    public static LoadedProject readXsProject(File file) throws Exception {
+        if (ShardedProjectStore.isManifest(file)) {
+            return ShardedProjectStore.read(file);
+        }
+        if (PreferencesManager.isParallelLoadingEnabled() && file.length() >= PARALLEL_LOAD_THRESHOLD) {
+            LoadedProject loaded = ChunkedProjectReader.read(file);
+            if (loaded != null) {
+                return loaded;
+            }
+            logger.warn("Could not index categories of {}, falling back to the DOM loader.", file.getAbsolutePath());
+        }
+
+        try {
+            return readXsProjectDom(file);
+        } catch (SAXException e) {
+            logger.warn("Project file {} is malformed, trying to recover intact categories.", file.getAbsolutePath());
+            LoadedProject recovered;
+            try {
+                recovered = ChunkedProjectReader.read(file);
+            } catch (Exception recoveryError) {
+                e.addSuppressed(recoveryError);
+                throw e;
+            }
+            if (recovered == null) throw e;
+            return recovered;
+        }
+    }
+
+    /**
+     * Reads a project from a .xsproject XML file by parsing the whole document into a DOM.
+     *
+     * @param file the file to read the project from
+     * @return LoadedProject containing the project name, items, and clipboard keys
+     * @throws Exception if the file cannot be read or parsed
+     */
+    private static LoadedProject readXsProjectDom(File file) throws Exception {
+        List<DataItem> items = new ArrayList<>();
+        List<DataItem> clipboardItems = new ArrayList<>();
+        List<String> damaged = new ArrayList<>();
+        ProjectMeta meta = new ProjectMeta();
+
+        logger.debug("Creating DocumentBuilder and parsing XML file.");
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        Document doc = builder.parse(new ByteArrayInputStream(bytes), file.toURI().toString());
+        // The checksums cover the raw category bodies, which the DOM no longer has
+        List<Boolean> verified = ChunkedProjectReader.verifyCategories(ChunkedProjectReader.decode(bytes));
+        doc.getDocumentElement().normalize();
+
+        Element root = doc.getDocumentElement();
+
+        // Parse meta info
+        logger.debug("Parsing project meta information.");
+        NodeList metaList = root.getElementsByTagName("Meta");
+        if (metaList.getLength() > 0) {
+            Element metaNode = (Element) metaList.item(0);
+            meta.setName(getElementText(metaNode, "Name"));
+            meta.setDescription(getElementText(metaNode, "Description"));
+            meta.setAuthor(getElementText(metaNode, "Author"));
+            logger.debug("Meta loaded: name={}, description={}, author={}", meta.getName(), meta.getDescription(), meta.getAuthor());
+        }
+
+        // Parse Clipboard: <Clipboard><I k="" ot="" tt=""/></Clipboard>
+        logger.debug("Parsing clipboard items.");
+        NodeList clipboardList = root.getElementsByTagName("Clipboard");
+        if (clipboardList.getLength() > 0) {
+            Element clipboardElem = (Element) clipboardList.item(0);
+            NodeList iNodes = clipboardElem.getElementsByTagName("I");
+            for (int i = 0; i < iNodes.getLength(); i++) {
+                Element iElem = (Element) iNodes.item(i);
+                String key = StringPool.intern(iElem.getAttribute("k"));
+                String original = iElem.getAttribute("ot");
+                String translated = iElem.getAttribute("tt");
+                clipboardItems.add(new DataItem("", key, original, translated));
+                logger.trace("Loaded clipboard item: key={}", key);
+            }
+        }
+
+        // Parse Data: <Data><C c=""><I .../></C></Data>
+        logger.debug("Parsing data items by category.");
+        NodeList dataList = root.getElementsByTagName("Data");
+        if (dataList.getLength() > 0) {
+            Element dataElem = (Element) dataList.item(0);
+            NodeList cNodes = dataElem.getElementsByTagName("C");
+            for (int i = 0; i < cNodes.getLength(); i++) {
+                Element cElem = (Element) cNodes.item(i);
+                String category = StringPool.intern(cElem.getAttribute("c"));
+                if (i < verified.size() && !verified.get(i)) {
+                    logger.warn("Checksum mismatch in category '{}', skipping it.", category);
+                    damaged.add(category);
+                    continue;
+                }
+                List<DataItem> categoryItems = new ArrayList<>();
+                NodeList iNodes = cElem.getElementsByTagName("I");
+                for (int j = 0; j < iNodes.getLength(); j++) {
+                    Element iElem = (Element) iNodes.item(j);
+                    String key = StringPool.intern(iElem.getAttribute("k"));
+                    String original = StringPool.intern(iElem.getAttribute("ot"));
+                    String translated = StringPool.intern(iElem.getAttribute("tt"));
+                    categoryItems.add(new DataItem(category, key, original, translated));
+                }
+
+                items.addAll(categoryItems);
+            }
+        }
+
+        // Returning clipboard keys as a list of strings
+        List<String> clipboardKeys = clipboardItems.stream().map(DataItem::getKey).collect(java.util.stream.Collectors.toList());
+
+        return new LoadedProject(meta, items, clipboardKeys, damaged);
+    }
+
+    /**
+     * Build the body of a category's {@code <C>} element: one {@code <I>} element per item, each on its own line.
+     *
+     * @param items  the items of the category
+     * @param indent the indentation of the {@code <C>} element
+     * @return the text between the start tag and the end tag
+     */
+    static String categoryBody(List<DataItem> items, String indent) {
+        StringBuilder sb = new StringBuilder(items.size() * 64 + 16);
+        for (DataItem item : items) {
+            sb.append('\n').append(indent).append("    ").append(itemXml(item));
+        }
+        return sb.append('\n').append(indent).toString();
+    }
+
+    private static String itemXml(DataItem item) {
+        return "<I k=\"" + escape(item.getKey())
+                + "\" ot=\"" + escape(item.getOriginalText())
+                + "\" tt=\"" + escape(item.getTranslatedText())
+                + "\"/>";
+    }
+
+    /**
+     * Compute the CRC32C of a category's body, as stored in the {@code bcrc} attribute of its {@code <C>} element.
+     * The checksum covers the raw UTF-8 bytes between the start tag and the end tag, so verifying it only scans
+     * bytes and needs no XML parsing. Carriage returns are skipped, so converting line endings, e.g. on checkout,
+     * does not damage a file; line breaks inside values are written as character references and still count.
+     *
+     * @param body the text between the start tag and the end tag
+     * @return the checksum as eight hex digits
+     */
+    static String categoryChecksum(String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        CRC32C crc = new CRC32C();
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\r') {
+                crc.update(bytes, start, i - start);
+                start = i + 1;
+            }
+        }
+        crc.update(bytes, start, bytes.length - start);
+        return "%08x".formatted(crc.getValue());
+    }
+
+    /**
+     * Escape a value for use in XML text or a double-quoted attribute.
+     * Line breaks and tabs are written as character references so attribute normalization keeps them.
+     *
+     * @param value the value to escape
+     * @return the escaped value
+     */
+    static String escape(String value) {
+        if (value == null) return "";
+        StringBuilder sb = new StringBuilder(value.length() + 16);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                case '\n' -> sb.append("&#10;");
+                case '\r' -> sb.append("&#13;");
+                case '\t' -> sb.append("&#9;");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
     /**
      * Internal utility to get text content of an element by tag name.
      *
@@ -255,11 +407,16 @@ public class ProjectFileManager {
     /**
      * Record to hold the loaded project data.
      *
-     * @param meta      the ProjectMeta object containing project metadata
-     * @param items     the list of DataItem objects representing the project data
-     * @param clipboard the list of keys currently in the clipboard
+     * @param meta              the ProjectMeta object containing project metadata
+     * @param items             the list of DataItem objects representing the project data
+     * @param clipboard         the list of keys currently in the clipboard
+     * @param damagedCategories the categories that failed verification and were not loaded
      */
-    public record LoadedProject(ProjectMeta meta, List<DataItem> items, List<String> clipboard) {
+    public record LoadedProject(ProjectMeta meta, List<DataItem> items, List<String> clipboard,
+                                List<String> damagedCategories) {
+        public LoadedProject(ProjectMeta meta, List<DataItem> items, List<String> clipboard) {
+            this(meta, items, clipboard, List.of());
+        }
     }
 
 }
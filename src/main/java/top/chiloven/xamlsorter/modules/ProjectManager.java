@@ -2,6 +2,8 @@ package top.chiloven.xamlsorter.modules;
 
 import top.chiloven.xamlsorter.entities.DataItem;
 import top.chiloven.xamlsorter.entities.ProjectMeta;
+import top.chiloven.xamlsorter.entities.ProjectSnapshot;
+import top.chiloven.xamlsorter.modules.journal.ProjectJournal;
 import top.chiloven.xamlsorter.ui.MainPage;
 import top.chiloven.xamlsorter.ui.dialogs.NewProjectDialog;
 import top.chiloven.xamlsorter.utils.CustomFileChooser;
@@ -12,14 +14,22 @@ import org.apache.logging.log4j.Logger;
 import top.chiloven.xamlsorter.ui.dialogs.ProjectMetaEditDialog;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.Map;
+import java.util.Set;
 
 import static top.chiloven.xamlsorter.modules.I18n.getLang;
 
 public class ProjectManager {
     private static final Logger logger = LogManager.getLogger(ProjectManager.class);
 
+    // The file the store content was last loaded from or saved to, and the store generation at that time
+    private static File savedFile;
+    private static long savedGeneration;
+
     /**
      * Edit the current project metadata.
      * This method shows a dialog in the UI thread and processes data in a background thread.
@@ -44,6 +54,7 @@ public class ProjectManager {
                         },
                         result -> {
                             mainPage.setCurrentProjectMeta(result);
+                            mainPage.getJournal().requireFullSave();
                             mainPage.setModified(true);
                             logger.info("Project metadata updated: {}", result.getName());
                         },
@@ -73,7 +84,7 @@ public class ProjectManager {
     }
 
     /**
-     * Open an existing project file (.xsproject), load data and update the main page.
+     * Open an existing project file (.xsproject) or sharded project manifest (.xsmanifest), load data and update the main page.
      * This method processes data in a background thread and updates the UI in the JavaFX application thread.
      *
      * @param mainPage the MainPage instance to update
@@ -89,7 +100,7 @@ public class ProjectManager {
                 mainPage.getRootPane().getScene().getWindow(),
                 getLang("module.proj_manager.open.title"),
                 getLang("general.files.xsproject"),
-                List.of("xsproject")
+                List.of("xsproject", ShardedProjectStore.MANIFEST_EXTENSION)
         );
         if (file == null) {
             logger.info("Open project operation cancelled by user.");
@@ -112,21 +123,14 @@ public class ProjectManager {
                 },
                 loaded -> {
                     if (loaded != null) {
-                        logger.debug("Loaded project meta: {}", loaded.meta());
-                        mainPage.setCurrentProjectMeta(loaded.meta());
-                        mainPage.getGroupedData().clear();
-                        loaded.items().stream()
-                                .collect(java.util.stream.Collectors.groupingBy(DataItem::getCategory))
-                                .forEach((k, v) -> mainPage.getGroupedData().put(k, v));
-
-                        logger.debug("Clipboard and grouped data updated.");
-                        ClipboardManager.clear();
-                        ClipboardManager.setClipboardKeys(loaded.clipboard(), loaded.items());
+                        applyLoadedProject(mainPage, loaded);
+                        markSaved(mainPage, selectedFile, mainPage.getStore().dirtyTracker().generation());
 
                         mainPage.setCurrentProjectFile(selectedFile);
+                        mainPage.getJournal().bind(selectedFile);
                         mainPage.setModified(false);
-                        mainPage.getUndoManager().clear();
                         mainPage.getUndoManager().markSavePoint();
+                        AutosaveManager.discardRecovery();
                         mainPage.showEditor();
 
                         logger.info("Project opened: {}", selectedFile.getAbsolutePath());
@@ -145,11 +149,125 @@ public class ProjectManager {
         );
     }
 
+    /**
+     * Restore a project from an autosave recovery file.
+     * The restored project stays modified until it is saved, so the recovery file is kept until then.
+     * This method processes data in a background thread and updates the UI in the JavaFX application thread.
+     *
+     * @param mainPage     the MainPage instance to update
+     * @param recoveryFile the recovery file to load
+     * @param projectFile  the project file the recovery belongs to, or null if it was never saved
+     */
+    public static void restoreRecovery(MainPage mainPage, File recoveryFile, File projectFile) {
+        logger.debug("Restoring project from recovery file: {}", recoveryFile.getAbsolutePath());
+
+        TaskExecutorService.executeTask(
+                "RestoreRecovery",
+                () -> ProjectFileManager.loadXsProject(recoveryFile),
+                loaded -> {
+                    if (loaded == null) {
+                        logger.warn("Failed to load recovery file: {}", recoveryFile.getAbsolutePath());
+                        return;
+                    }
+                    applyLoadedProject(mainPage, loaded);
+
+                    boolean hasProjectFile = projectFile != null && projectFile.isFile();
+                    mainPage.setCurrentProjectFile(hasProjectFile ? projectFile : null);
+                    if (hasProjectFile) {
+                        mainPage.getJournal().bind(projectFile);
+                        mainPage.getJournal().requireFullSave();
+                    } else {
+                        mainPage.getJournal().reset();
+                    }
+                    mainPage.showEditor();
+                    mainPage.setModified(true);
+
+                    logger.info("Project restored from recovery file: {}", recoveryFile.getAbsolutePath());
+                },
+                error -> {
+                    logger.error("Failed to restore recovery file: {}", recoveryFile.getAbsolutePath(), error);
+                    Exception exception = (error instanceof Exception) ? (Exception) error : new Exception(error);
+                    ShowAlert.error(
+                            getLang("general.alert.error"),
+                            getLang("module.proj_manager.open.exception.alert.header"),
+                            getLang("module.proj_manager.open.exception.alert.content", recoveryFile.getAbsolutePath()),
+                            exception
+                    );
+                }
+        );
+    }
+
+    /**
+     * Replace the main page's project data, metadata and clipboard with a loaded project.
+     * This method must be called on the JavaFX Application Thread.
+     *
+     * @param mainPage the MainPage instance to update
+     * @param loaded   the loaded project
+     */
+    private static void applyLoadedProject(MainPage mainPage, ProjectFileManager.LoadedProject loaded) {
+        logger.debug("Loaded project meta: {}", loaded.meta());
+        mainPage.setCurrentProjectMeta(loaded.meta());
+        mainPage.getStore().replaceAll(loaded.items());
+        SortEngine.clearCache();
+        savedFile = null;
+
+        logger.debug("Clipboard and store updated.");
+        ClipboardManager.clear();
+        ClipboardManager.setClipboardKeys(loaded.clipboard(), mainPage.getStore());
+        mainPage.getUndoManager().clear();
+    }
+
+    /**
+     * Take a consistent copy of the current project state.
+     * This method must be called on the JavaFX Application Thread; the returned snapshot can then
+     * be serialized in a background thread while editing continues.
+     *
+     * @param mainPage the MainPage instance to access the store and project meta
+     * @return the snapshot
+     */
+    public static ProjectSnapshot takeSnapshot(MainPage mainPage) {
+        ProjectMeta meta = MainPage.getCurrentProjectMeta();
+        ProjectMeta metaCopy = meta != null
+                ? new ProjectMeta(meta.getName(), meta.getDescription(), meta.getAuthor())
+                : new ProjectMeta("", "", "");
+
+        // Read the generation first, so changes landing in between are in the snapshot but still count as dirty
+        TranslationStore store = mainPage.getStore();
+        long generation = store.dirtyTracker().generation();
+        return new ProjectSnapshot(metaCopy, store.snapshot(), ClipboardManager.getClipboardKeys(), generation);
+    }
+
+    /**
+     * Remember that the store content up to a generation is what a file holds, after loading or saving it.
+     * This method must be called on the JavaFX Application Thread.
+     *
+     * @param mainPage   the MainPage instance to access the store
+     * @param file       the project file
+     * @param generation the store generation the file content corresponds to
+     */
+    private static void markSaved(MainPage mainPage, File file, long generation) {
+        savedFile = file;
+        savedGeneration = generation;
+        mainPage.getStore().dirtyTracker().markClean(generation);
+    }
+
+    /**
+     * Get the categories changed since the store was last loaded from or saved to a file.
+     *
+     * @param mainPage the MainPage instance to access the store
+     * @param file     the file about to be written
+     * @return the changed category names, or null if the file does not hold an earlier state of this content
+     */
+    private static Set<String> categoriesChangedSinceSave(MainPage mainPage, File file) {
+        if (savedFile == null || !savedFile.getAbsoluteFile().equals(file.getAbsoluteFile())) return null;
+        return mainPage.getStore().dirtyTracker().categoriesChangedSince(savedGeneration);
+    }
+
     /**
      * Save the current project to its file if it exists, otherwise prompt to save as.
      * This method processes data in a background thread.
      *
-     * @param mainPage the MainPage instance to access grouped data and project meta
+     * @param mainPage the MainPage instance to access the store and project meta
      */
     public static void saveProject(MainPage mainPage) {
         File file = mainPage.getCurrentProjectFile();
@@ -164,16 +282,19 @@ public class ProjectManager {
      * Prompt the user to save the current project to a new file.
      * This method processes data in a background thread.
      *
-     * @param mainPage the MainPage instance to access grouped data and project meta
+     * @param mainPage the MainPage instance to access the store and project meta
      */
     public static void saveProjectAs(MainPage mainPage) {
         logger.debug("Prompting user to save project as a new file...");
+        Map<String, List<String>> saveFilters = new LinkedHashMap<>();
+        saveFilters.put(getLang("general.files.xsproject"), List.of("xsproject"));
+        saveFilters.put(getLang("general.files.xsmanifest"), List.of(ShardedProjectStore.MANIFEST_EXTENSION));
         File file = CustomFileChooser.showSaveFileDialog(
                 mainPage.getRootPane().getScene().getWindow(),
                 getLang("module.proj_manager.save_as.title"),
-                getLang("general.files.xsproject"),
-                List.of("xsproject"),
-                MainPage.getCurrentProjectMeta().getName() + ".xsproject"
+                saveFilters,
+                // Without an extension, so the selected file type decides it
+                MainPage.getCurrentProjectMeta().getName()
         );
 
         if (file != null) {
@@ -188,60 +309,104 @@ public class ProjectManager {
 
     /**
      * Save the current project to the specified file.
+     * If only journaled edits happened since the last save, just the journal is appended;
+     * otherwise the whole project file is rewritten and the journal discarded.
      * This method processes data in a background thread and updates the UI in the JavaFX application thread.
      *
-     * @param mainPage the MainPage instance to access grouped data and project meta
+     * @param mainPage the MainPage instance to access the store and project meta
      * @param file     the file to save the project to
      */
     private static void doSave(MainPage mainPage, File file) {
         logger.debug("Saving project to file: {}", file.getAbsolutePath());
 
+        ProjectJournal journal = mainPage.getJournal();
+        if (journal.canAppend(file)) {
+            appendJournal(mainPage, file);
+            return;
+        }
+
+        // Snapshot on the FX thread so the worker never reads the live store
+        ProjectSnapshot snapshot = takeSnapshot(mainPage);
+        Set<String> changedCategories = categoriesChangedSinceSave(mainPage, file);
+        ProjectJournal.Mark mark = journal.mark();
         TaskExecutorService.executeTask(
                 "SaveProject",
                 () -> {
-                    List<DataItem> items = mainPage.getGroupedData().values().stream()
-                            .flatMap(List::stream)
-                            .collect(java.util.stream.Collectors.toList());
-                    List<String> clipboardKeys = ClipboardManager.getClipboard().stream()
-                            .map(DataItem::getKey)
-                            .collect(java.util.stream.Collectors.toList());
-
                     try {
-                        try {
-                            return ProjectFileManager.saveXsProject(file, MainPage.getCurrentProjectMeta(), items, clipboardKeys)
-                                    .thenApply(success -> {
-                                        if (success) {
-                                            logger.debug("Project saved successfully to file: {}", file.getAbsolutePath());
-                                            return true;
-                                        } else {
-                                            logger.warn("Project save operation returned false for file: {}", file.getAbsolutePath());
-                                            return false;
-                                        }
-                                    }).get();
-                        } catch (InterruptedException | ExecutionException e) {
-                            logger.error("Exception while waiting for project save completion", e);
-                            throw new RuntimeException("Failed to save project: " + e.getMessage(), e);
-                        }
+                        // Write on this worker: waiting for another pool task while holding the file lock
+                        // can starve the pool when a journal compaction is waiting for the same lock
+                        return journal.withFileLock(() -> {
+                            ProjectFileManager.writeXsProject(file, snapshot.meta(), snapshot.items(), snapshot.clipboardKeys(), changedCategories);
+                            logger.debug("Project saved successfully to file: {}", file.getAbsolutePath());
+                            journal.markFullSaved(file, mark);
+                            return true;
+                        });
                     } catch (Exception e) {
                         logger.error("Failed to save project to file: {}", file.getAbsolutePath(), e);
-                        throw e;
+                        throw new RuntimeException("Failed to save project: " + e.getMessage(), e);
                     }
                 },
                 success -> {
+                    markSaved(mainPage, file, snapshot.generation());
+                    ShowAlert.info(
+                            getLang("module.proj_file_manager.save.success.alert.title"),
+                            getLang("module.proj_file_manager.save.success.alert.content")
+                    );
                     mainPage.setModified(false);
                     mainPage.getUndoManager().markSavePoint();
+                    AutosaveManager.discardRecovery();
                     logger.info("Project saved successfully to: {}", file.getAbsolutePath());
                 },
-                error -> {
-                    logger.error("Failed to save project to file: {}", file.getAbsolutePath(), error);
-                    Exception exception = (error instanceof Exception) ? (Exception) error : new Exception(error);
-                    ShowAlert.error(
-                            getLang("general.alert.error"),
-                            getLang("module.proj_manager.save.exception.alert.header"),
-                            getLang("module.proj_manager.save.exception.alert.content"),
-                            exception
+                error -> showSaveError(file, error)
+        );
+    }
+
+    /**
+     * Save the current project by appending the pending edits to its journal.
+     * The journal is compacted into the project file in the background once it grows too large.
+     * This method processes data in a background thread and updates the UI in the JavaFX application thread.
+     *
+     * @param mainPage the MainPage instance to access the journal
+     * @param file     the project file the journal belongs to
+     */
+    private static void appendJournal(MainPage mainPage, File file) {
+        ProjectJournal journal = mainPage.getJournal();
+        // Journal entries are recorded as edits are made, so the append covers everything up to now
+        long generation = mainPage.getStore().dirtyTracker().generation();
+
+        TaskExecutorService.executeTask(
+                "SaveJournal",
+                () -> {
+                    try {
+                        return journal.append();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to append journal of: " + file.getAbsolutePath(), e);
+                    }
+                },
+                journalSize -> {
+                    markSaved(mainPage, file, generation);
+                    mainPage.setModified(false);
+                    mainPage.getUndoManager().markSavePoint();
+                    AutosaveManager.discardRecovery();
+                    ShowAlert.info(
+                            getLang("module.proj_file_manager.save.success.alert.title"),
+                            getLang("module.proj_file_manager.save.success.alert.content")
                     );
-                }
+                    logger.info("Project journal saved for: {} ({} bytes)", file.getAbsolutePath(), journalSize);
+                    journal.compactIfNeeded(journalSize);
+                },
+                error -> showSaveError(file, error)
+        );
+    }
+
+    private static void showSaveError(File file, Throwable error) {
+        logger.error("Failed to save project to file: {}", file.getAbsolutePath(), error);
+        Exception exception = (error instanceof Exception) ? (Exception) error : new Exception(error);
+        ShowAlert.error(
+                getLang("general.alert.error"),
+                getLang("module.proj_manager.save.exception.alert.header"),
+                getLang("module.proj_manager.save.exception.alert.content"),
+                exception
         );
     }
 
@@ -271,8 +436,12 @@ public class ProjectManager {
                         },
                         result -> {
                             mainPage.setCurrentProjectMeta(result);
-                            mainPage.getGroupedData().clear();
+                            mainPage.getStore().clear();
+                            SortEngine.clearCache();
+                            savedFile = null;
                             ClipboardManager.clear();
+                            mainPage.getJournal().reset();
+                            AutosaveManager.discardRecovery();
                             mainPage.showEditor();
                             mainPage.setModified(true);
 
@@ -311,7 +480,7 @@ public class ProjectManager {
      * Import a XAML file into the current project.
      * This method processes data in a background thread and updates the UI in the JavaFX application thread.
      *
-     * @param mainPage     the MainPage instance to access grouped data
+     * @param mainPage     the MainPage instance to access the store
      * @param isTranslated true if importing a translation XAML file, false for an original XAML file
      */
     @SuppressWarnings("unchecked")
@@ -345,11 +514,8 @@ public class ProjectManager {
                         boolean translated = (boolean) result[1];
 
                         String column = translated ? "translated" : "original";
-                        DataOperationHelper.applyColumnUpdates(items, mainPage.getGroupedData(), column);
-                        logger.debug("Applied column updates to grouped data. Column: {}", column);
-
-                        SortAndRefresher.refresh(mainPage.getDataTreeTable(), mainPage.getGroupedData());
-                        logger.debug("Refreshed data tree table.");
+                        DataOperationHelper.applyColumnUpdates(items, mainPage.getStore(), column);
+                        logger.debug("Started column updates. Column: {}", column);
                         ShowAlert.info(
                                 getLang("general.alert.success"),
                                 getLang("module.proj_manager.import_xaml.success.alert.content")
@@ -376,7 +542,7 @@ public class ProjectManager {
      * Create a new project from a XAML file.
      * This method processes data in a background thread and updates the UI in the JavaFX application thread.
      *
-     * @param mainPage     the MainPage instance to access grouped data
+     * @param mainPage     the MainPage instance to access the store
      * @param isTranslated true if importing a translation XAML file, false for an original XAML file
      * @see #createProject(MainPage)
      * @see #importXaml(MainPage, boolean)
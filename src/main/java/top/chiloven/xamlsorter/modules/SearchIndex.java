@@ -0,0 +1,282 @@
+package top.chiloven.xamlsorter.modules;
+
+import top.chiloven.xamlsorter.entities.EntryTable;
+import top.chiloven.xamlsorter.utils.TaskExecutorService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Case-insensitive substring search over the keys and texts of a {@link TranslationStore}.
+ * The lower-cased keys and texts are kept by row id and prepared in the background: completely when a project
+ * is loaded, and afterwards only for the entries named in the store's {@link StoreChange change events}.
+ * One update runs at a time; changes arriving meanwhile are collected and applied by the next one.
+ * A query only scans prepared strings; the scan runs in parallel and can be cancelled, e.g. when the user types on.
+ * Until the first preparation is done, queries read the store's snapshot directly.
+ * In off-heap mode only the keys are prepared and texts are read from the snapshot while scanning,
+ * so the index does not pull all texts onto the heap.
+ * Queries are thread-safe; the index must be created in the JavaFX application thread.
+ */
+public class SearchIndex {
+    private static final Logger logger = LogManager.getLogger(SearchIndex.class);
+
+    private static final int CHUNK_SIZE = 16384;
+
+    private final TranslationStore store;
+    private final List<Runnable> updateListeners = new CopyOnWriteArrayList<>();
+    private volatile Prepared prepared;
+    private volatile int resets = 0;
+
+    // Collected changes, only used in the JavaFX application thread
+    private final Set<String> pendingKeys = new HashSet<>();
+    private boolean pendingRemovals = false;
+    private boolean pendingReset = true;
+    private boolean updating = false;
+
+    /**
+     * Create an index for a store and start preparing it in the background.
+     *
+     * @param store the store to search
+     */
+    public SearchIndex(TranslationStore store) {
+        this.store = store;
+        store.addChangeListener(this::changed);
+        scheduleUpdate();
+    }
+
+    /**
+     * Register a listener that is run in the JavaFX application thread after the index was brought up to date,
+     * e.g. to run the current query again.
+     *
+     * @param listener the listener
+     */
+    public void addUpdateListener(Runnable listener) {
+        updateListeners.add(listener);
+    }
+
+    // =========================
+    // Updating
+    // =========================
+
+    private void changed(StoreChange change) {
+        if (change.isReset()) {
+            // Row ids of the old content mean nothing now; queries read the snapshot until the index is rebuilt
+            prepared = null;
+            resets++;
+            pendingReset = true;
+            pendingKeys.clear();
+            pendingRemovals = false;
+        } else if (!pendingReset) {
+            pendingKeys.addAll(change.addedKeys());
+            change.updatedKeys().forEach((key, fields) -> {
+                if (!fields.equals(EnumSet.of(StoreChange.Field.CATEGORY))) pendingKeys.add(key);
+            });
+            if (!change.removedKeys().isEmpty()) pendingRemovals = true;
+        }
+        scheduleUpdate();
+    }
+
+    private void scheduleUpdate() {
+        if (updating || (!pendingReset && !pendingRemovals && pendingKeys.isEmpty())) return;
+        updating = true;
+        boolean reset = pendingReset;
+        boolean removals = pendingRemovals;
+        List<String> keys = new ArrayList<>(pendingKeys);
+        pendingReset = false;
+        pendingRemovals = false;
+        pendingKeys.clear();
+        int epoch = resets;
+
+        TaskExecutorService.executeTask(
+                "SearchIndexUpdate",
+                () -> {
+                    Prepared current = prepared;
+                    Prepared result = reset || current == null
+                            ? Prepared.of(store.snapshot())
+                            : update(current, keys, removals);
+                    // Content replaced while this ran: the result belongs to the old content
+                    if (epoch == resets) prepared = result;
+                    return true;
+                },
+                done -> {
+                    updating = false;
+                    for (Runnable listener : updateListeners) listener.run();
+                    scheduleUpdate();
+                },
+                error -> {
+                    logger.error("Error updating the search index", error);
+                    updating = false;
+                    scheduleUpdate();
+                }
+        );
+    }
+
+    private Prepared update(Prepared index, List<String> keys, boolean removals) {
+        long start = System.nanoTime();
+        // Rows first: every row found is then in the snapshot, unless it was removed again meanwhile
+        List<int[]> rowsOfKeys = new ArrayList<>(keys.size());
+        int maxRow = -1;
+        for (String key : keys) {
+            int[] rows = store.rowsWithKey(key);
+            rowsOfKeys.add(rows);
+            for (int row : rows) maxRow = Math.max(maxRow, row);
+        }
+        EntryTable.Snapshot snapshot = store.snapshot();
+
+        Prepared target = maxRow < index.keys.length ? index : index.grow(maxRow + 1);
+        target.snapshot = snapshot;
+        if (removals) {
+            for (int row = 0; row < target.limit; row++) {
+                if (target.keys[row] != null && !snapshot.isLive(row)) target.keys[row] = null;
+            }
+        }
+        for (int[] rows : rowsOfKeys) {
+            for (int row : rows) {
+                if (snapshot.isLive(row)) target.set(row, snapshot);
+            }
+        }
+        target.limit = Math.max(target.limit, maxRow + 1);
+        logger.debug("Updated search index for {} keys in {} ms", keys.size(), (System.nanoTime() - start) / 1_000_000);
+        return target;
+    }
+
+    // =========================
+    // Queries
+    // =========================
+
+    /**
+     * Find the entries whose key, original text or translated text contains the query, ignoring case.
+     * The result reflects the index at the time of the query; once an update finishes, the update listeners run.
+     *
+     * @param query     the text to look for
+     * @param cancelled checked while scanning; once it returns true the query stops
+     * @return the row ids of the matching entries, or null if the query was cancelled
+     */
+    public BitSet query(String query, BooleanSupplier cancelled) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        Prepared index = prepared;
+        BitSet matches;
+        if (index != null) {
+            matches = scan(index.limit, row -> index.matches(row, needle) ? row : -1, cancelled);
+        } else {
+            EntryTable.Snapshot snapshot = store.snapshot();
+            int[] rows = snapshot.rows().toArray();
+            matches = scan(rows.length, i -> matches(snapshot, rows[i], needle) ? rows[i] : -1, cancelled);
+        }
+        if (matches != null) logger.debug("Query '{}' matched {} entries", query, matches.cardinality());
+        return matches;
+    }
+
+    /**
+     * Scan positions in parallel chunks.
+     *
+     * @param count     the number of positions
+     * @param matcher   maps a position to the matching row id, or -1
+     * @param cancelled checked before every chunk
+     * @return the matching row ids, or null if cancelled
+     */
+    private static BitSet scan(int count, IntUnaryOperator matcher, BooleanSupplier cancelled) {
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        BitSet[] parts = IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> {
+                    if (cancelled.getAsBoolean()) return null;
+                    BitSet part = new BitSet();
+                    int end = Math.min(count, (chunk + 1) * CHUNK_SIZE);
+                    for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                        int row = matcher.applyAsInt(i);
+                        if (row >= 0) part.set(row);
+                    }
+                    return part;
+                })
+                .toArray(BitSet[]::new);
+        if (cancelled.getAsBoolean()) return null;
+
+        BitSet matches = new BitSet();
+        for (BitSet part : parts) {
+            matches.or(part);
+        }
+        return matches;
+    }
+
+    private static boolean matches(EntryTable.Snapshot snapshot, int row, String needle) {
+        return lower(snapshot.get(row, EntryTable.KEY)).contains(needle)
+                || lower(snapshot.get(row, EntryTable.ORIGINAL_TEXT)).contains(needle)
+                || lower(snapshot.get(row, EntryTable.TRANSLATED_TEXT)).contains(needle);
+    }
+
+    private static String lower(String text) {
+        return text != null ? text.toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * The lower-cased keys and texts by row id. A null key marks a row without an entry.
+     * Only the update task writes to it; a query running meanwhile may see some rows before and some after the
+     * update, and is followed by another query once the update listeners run.
+     */
+    private static final class Prepared {
+        final String[] keys;
+        final String[] originals;
+        final String[] translations;
+        volatile EntryTable.Snapshot snapshot;
+        volatile int limit;
+
+        private Prepared(int capacity, boolean texts, EntryTable.Snapshot snapshot) {
+            this.keys = new String[capacity];
+            this.originals = texts ? new String[capacity] : null;
+            this.translations = texts ? new String[capacity] : null;
+            this.snapshot = snapshot;
+        }
+
+        static Prepared of(EntryTable.Snapshot snapshot) {
+            long start = System.nanoTime();
+            int[] rows = snapshot.rows().toArray();
+            int capacity = rows.length > 0 ? rows[rows.length - 1] + 1 : 0;
+            Prepared index = new Prepared(capacity + capacity / 4 + 16, !snapshot.isTextOffHeap(), snapshot);
+            // toLowerCase returns the string itself when nothing changes, so lower-case texts cost nothing extra
+            IntStream.range(0, rows.length).parallel().forEach(i -> index.set(rows[i], snapshot));
+            index.limit = capacity;
+            logger.debug("Prepared search index for {} entries in {} ms", rows.length, (System.nanoTime() - start) / 1_000_000);
+            return index;
+        }
+
+        Prepared grow(int minCapacity) {
+            Prepared grown = new Prepared(Math.max(minCapacity, keys.length * 2), originals != null, snapshot);
+            System.arraycopy(keys, 0, grown.keys, 0, limit);
+            if (originals != null) {
+                System.arraycopy(originals, 0, grown.originals, 0, limit);
+                System.arraycopy(translations, 0, grown.translations, 0, limit);
+            }
+            grown.limit = limit;
+            return grown;
+        }
+
+        void set(int row, EntryTable.Snapshot source) {
+            if (originals != null) {
+                originals[row] = lower(source.get(row, EntryTable.ORIGINAL_TEXT));
+                translations[row] = lower(source.get(row, EntryTable.TRANSLATED_TEXT));
+            }
+            // The key last: a non-null key makes the row visible to queries
+            keys[row] = lower(source.get(row, EntryTable.KEY));
+        }
+
+        boolean matches(int row, String needle) {
+            String key = keys[row];
+            if (key == null) return false;
+            if (key.contains(needle)) return true;
+            if (originals != null) {
+                String original = originals[row];
+                String translation = translations[row];
+                return original != null && original.contains(needle) || translation != null && translation.contains(needle);
+            }
+            EntryTable.Snapshot source = snapshot;
+            return source.isLive(row) && (lower(source.get(row, EntryTable.ORIGINAL_TEXT)).contains(needle)
+                    || lower(source.get(row, EntryTable.TRANSLATED_TEXT)).contains(needle));
+        }
+    }
+}
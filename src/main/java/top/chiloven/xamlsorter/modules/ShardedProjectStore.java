@@ -0,0 +1,393 @@
+package top.chiloven.xamlsorter.modules;
+
+import top.chiloven.xamlsorter.entities.DataItem;
+import top.chiloven.xamlsorter.entities.ProjectMeta;
+import top.chiloven.xamlsorter.utils.StringPool;
+import top.chiloven.xamlsorter.utils.TaskExecutorService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+import static top.chiloven.xamlsorter.modules.ProjectFileManager.escape;
+
+/**
+ * Stores a project as a directory: a small manifest ({@code .xsmanifest}) with the metadata, clipboard and
+ * the list of categories, plus one {@code .xscat} file per category in a directory next to it named after the
+ * manifest, e.g. {@code game.categories} for {@code game.xsmanifest}, so several projects can share a folder.
+ * The manifest records the name of its shard directory.
+ * Shards are read and written in parallel, and saving only rewrites the shards whose content changed,
+ * so a one-cell edit touches a single small file.
+ */
+public class ShardedProjectStore {
+    private static final Logger logger = LogManager.getLogger(ShardedProjectStore.class);
+
+    public static final String MANIFEST_EXTENSION = "xsmanifest";
+    public static final String SHARD_EXTENSION = "xscat";
+    private static final String SHARD_DIR_SUFFIX = ".categories";
+
+    /**
+     * Check whether a file is the manifest of a sharded project.
+     *
+     * @param file the project file
+     * @return true if the file has the manifest extension
+     */
+    public static boolean isManifest(File file) {
+        return file != null && file.getName().toLowerCase(Locale.ROOT).endsWith("." + MANIFEST_EXTENSION);
+    }
+
+    /**
+     * Get the directory new shards of a manifest are written to.
+     *
+     * @param manifest the manifest file
+     * @return the shard directory next to the manifest, named after it
+     */
+    public static File shardDirFor(File manifest) {
+        String name = manifest.getName();
+        String base = isManifest(manifest) ? name.substring(0, name.length() - MANIFEST_EXTENSION.length() - 1) : name;
+        return new File(manifest.getAbsoluteFile().getParentFile(), base + SHARD_DIR_SUFFIX);
+    }
+
+    /**
+     * Get the directory the shards listed in a manifest were written to.
+     *
+     * @param manifest the manifest file
+     * @param parsed   the parsed manifest
+     * @return the shard directory named in the manifest
+     */
+    private static File shardDirOf(File manifest, Manifest parsed) {
+        return new File(manifest.getAbsoluteFile().getParentFile(), parsed.shardDir());
+    }
+
+    // =========================
+    // Reading
+    // =========================
+
+    /**
+     * Read a sharded project, decoding the category shards in parallel.
+     * Shards that are missing or fail their checksum are skipped and reported as damaged.
+     * This method is called from a background thread.
+     *
+     * @param manifest the manifest file
+     * @return the loaded project
+     * @throws Exception if the manifest cannot be read
+     */
+    public static ProjectFileManager.LoadedProject read(File manifest) throws Exception {
+        Manifest parsed = readManifest(manifest);
+        File shardDir = shardDirOf(manifest, parsed);
+
+        List<ChunkedProjectReader.DecodedCategory> decoded = TaskExecutorService.parallelMap(
+                "ReadShards",
+                parsed.shards(),
+                shard -> readShard(shardDir, shard)
+        );
+
+        List<DataItem> items = new ArrayList<>();
+        List<String> damaged = new ArrayList<>();
+        for (ChunkedProjectReader.DecodedCategory category : decoded) {
+            if (category.intact()) {
+                items.addAll(category.items());
+            } else {
+                damaged.add(category.name());
+            }
+        }
+        logger.info("Read {} shards from {}", parsed.shards().size(), shardDir.getAbsolutePath());
+        return new ProjectFileManager.LoadedProject(parsed.meta(), items, parsed.clipboardKeys(), damaged);
+    }
+
+    private static ChunkedProjectReader.DecodedCategory readShard(File shardDir, ShardRef shard) {
+        File file = new File(shardDir, shard.fileName());
+        String xml;
+        try {
+            xml = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warn("Shard {} of category '{}' cannot be read: {}", file.getAbsolutePath(), shard.category(), e.getMessage());
+            return new ChunkedProjectReader.DecodedCategory(shard.category(), List.of(), false);
+        }
+
+        ChunkedProjectReader.DecodedCategory category = ChunkedProjectReader.decodeCategory(xml, 0);
+        if (!category.intact()) {
+            return new ChunkedProjectReader.DecodedCategory(shard.category(), List.of(), false);
+        }
+        if (!category.name().equals(shard.category())) {
+            logger.warn("Shard {} holds category '{}' instead of '{}'", file.getAbsolutePath(), category.name(), shard.category());
+            return new ChunkedProjectReader.DecodedCategory(shard.category(), List.of(), false);
+        }
+        String body = ChunkedProjectReader.body(xml);
+        if (body != null && !shard.crc().equalsIgnoreCase(ProjectFileManager.categoryChecksum(body))) {
+            // Shards are written before the manifest, so this is a save that was interrupted; the shard is newer
+            logger.warn("Shard {} is newer than the manifest, using the shard.", file.getAbsolutePath());
+        }
+        return category;
+    }
+
+    private static Manifest readManifest(File manifest) throws Exception {
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(manifest);
+        Element root = doc.getDocumentElement();
+
+        ProjectMeta meta = new ProjectMeta();
+        NodeList metaList = root.getElementsByTagName("Meta");
+        if (metaList.getLength() > 0) {
+            Element metaNode = (Element) metaList.item(0);
+            meta.setName(childText(metaNode, "Name"));
+            meta.setDescription(childText(metaNode, "Description"));
+            meta.setAuthor(childText(metaNode, "Author"));
+        }
+
+        List<String> clipboardKeys = new ArrayList<>();
+        NodeList clipboardList = root.getElementsByTagName("Clipboard");
+        if (clipboardList.getLength() > 0) {
+            NodeList iNodes = ((Element) clipboardList.item(0)).getElementsByTagName("I");
+            for (int i = 0; i < iNodes.getLength(); i++) {
+                clipboardKeys.add(StringPool.intern(((Element) iNodes.item(i)).getAttribute("k")));
+            }
+        }
+
+        String shardDir = "";
+        NodeList shardsList = root.getElementsByTagName("Shards");
+        if (shardsList.getLength() > 0) {
+            shardDir = ((Element) shardsList.item(0)).getAttribute("dir");
+        }
+
+        List<ShardRef> shards = new ArrayList<>();
+        NodeList sNodes = root.getElementsByTagName("S");
+        for (int i = 0; i < sNodes.getLength(); i++) {
+            Element sElem = (Element) sNodes.item(i);
+            shards.add(new ShardRef(sElem.getAttribute("c"), sElem.getAttribute("f"), sElem.getAttribute("bcrc")));
+        }
+        return new Manifest(meta, clipboardKeys, shardDir, shards);
+    }
+
+    private static String childText(Element parent, String tag) {
+        NodeList list = parent.getElementsByTagName(tag);
+        return list.getLength() > 0 ? list.item(0).getTextContent() : "";
+    }
+
+    // =========================
+    // Writing
+    // =========================
+
+    /**
+     * Write a project as a manifest plus category shards.
+     * Only shards whose checksum differs from the one in the existing manifest are rewritten,
+     * and shards of categories that no longer exist are deleted.
+     * This method is called from a background thread.
+     *
+     * @param manifest      the manifest file
+     * @param meta          the project metadata
+     * @param items         the project items
+     * @param clipboardKeys the keys currently in the clipboard
+     * @return the number of shards that were rewritten
+     * @throws Exception if a shard or the manifest cannot be written
+     */
+    public static int write(File manifest, ProjectMeta meta, List<DataItem> items, List<String> clipboardKeys) throws Exception {
+        return write(manifest, meta, items, clipboardKeys, null);
+    }
+
+    /**
+     * Write a project as a manifest plus category shards.
+     * When the categories changed since the manifest was last written are known, the shards of all other
+     * categories are kept without even computing their checksum; otherwise every checksum is compared.
+     * This method is called from a background thread.
+     *
+     * @param manifest          the manifest file
+     * @param meta              the project metadata
+     * @param items             the project items
+     * @param clipboardKeys     the keys currently in the clipboard
+     * @param changedCategories the categories changed since the manifest was last written, or null if unknown
+     * @return the number of shards that were rewritten
+     * @throws Exception if a shard or the manifest cannot be written
+     */
+    public static int write(File manifest, ProjectMeta meta, List<DataItem> items, List<String> clipboardKeys,
+                            Set<String> changedCategories) throws Exception {
+        File shardDir = shardDirFor(manifest);
+        Files.createDirectories(shardDir.toPath());
+
+        Map<String, ShardRef> previous = new HashMap<>();
+        if (manifest.isFile()) {
+            try {
+                Manifest existing = readManifest(manifest);
+                // Shards in another directory, e.g. when the manifest was copied or renamed, are neither reused nor deleted
+                if (shardDirOf(manifest, existing).getAbsoluteFile().equals(shardDir.getAbsoluteFile())) {
+                    for (ShardRef shard : existing.shards()) {
+                        previous.put(shard.category(), shard);
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("Existing manifest {} cannot be read, rewriting all shards.", manifest.getAbsolutePath(), e);
+            }
+        }
+
+        // Categories are sorted so the manifest stays stable between saves
+        Map<String, List<DataItem>> grouped = new TreeMap<>();
+        for (DataItem item : items) {
+            grouped.computeIfAbsent(item.getCategory(), k -> new ArrayList<>()).add(item);
+        }
+
+        // Existing categories keep their shard files, new ones get a name no existing shard uses
+        Set<String> usedNames = new HashSet<>();
+        for (String category : grouped.keySet()) {
+            ShardRef old = previous.get(category);
+            if (old != null) usedNames.add(old.fileName().toLowerCase(Locale.ROOT));
+        }
+        List<PendingShard> pending = new ArrayList<>();
+        for (Map.Entry<String, List<DataItem>> entry : grouped.entrySet()) {
+            ShardRef old = previous.get(entry.getKey());
+            String fileName = old != null ? old.fileName() : shardFileName(entry.getKey(), usedNames);
+            boolean unchanged = changedCategories != null && old != null && !changedCategories.contains(entry.getKey());
+            pending.add(new PendingShard(entry.getKey(), fileName, entry.getValue(), old, unchanged));
+        }
+
+        List<WrittenShard> written = TaskExecutorService.parallelMap(
+                "WriteShards",
+                pending,
+                shard -> writeShard(shardDir, shard)
+        );
+        int rewritten = 0;
+        List<ShardRef> shards = new ArrayList<>();
+        for (WrittenShard shard : written) {
+            if (shard.rewritten()) rewritten++;
+            shards.add(shard.ref());
+        }
+
+        writeIfChanged(manifest.toPath(), manifestXml(meta, clipboardKeys, shardDir.getName(), shards));
+
+        Set<String> kept = new HashSet<>();
+        for (ShardRef shard : shards) kept.add(shard.fileName());
+        for (ShardRef old : previous.values()) {
+            if (!kept.contains(old.fileName())) {
+                Files.deleteIfExists(new File(shardDir, old.fileName()).toPath());
+                logger.debug("Deleted shard of removed category '{}'", old.category());
+            }
+        }
+
+        logger.info("Saved {} categories to {}, {} shards rewritten", shards.size(), manifest.getAbsolutePath(), rewritten);
+        return rewritten;
+    }
+
+    /**
+     * Write one shard unless it is known to be unchanged, or its checksum matches the existing manifest,
+     * and its file still exists.
+     *
+     * @param shardDir the shard directory
+     * @param shard    the shard to write
+     * @return the shard reference and whether the file was rewritten
+     */
+    private static WrittenShard writeShard(File shardDir, PendingShard shard) {
+        if (shard.unchanged() && new File(shardDir, shard.fileName()).isFile()) {
+            return new WrittenShard(shard.previous(), false);
+        }
+        String body = ProjectFileManager.categoryBody(shard.items(), "");
+        String crc = ProjectFileManager.categoryChecksum(body);
+        ShardRef ref = new ShardRef(shard.category(), shard.fileName(), crc);
+        Path path = new File(shardDir, shard.fileName()).toPath();
+        if (shard.previous() != null && crc.equals(shard.previous().crc()) && Files.isRegularFile(path)) {
+            return new WrittenShard(ref, false);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<C c=\"").append(escape(shard.category())).append("\" bcrc=\"").append(crc).append("\">");
+        sb.append(body).append("</C>\n");
+
+        try {
+            writeAtomically(path, sb.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write shard: " + path, e);
+        }
+        logger.debug("Wrote shard {} ({} items)", path, shard.items().size());
+        return new WrittenShard(ref, true);
+    }
+
+    private static String manifestXml(ProjectMeta meta, List<String> clipboardKeys, String shardDir, List<ShardRef> shards) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<XsManifest version=\"1\">\n");
+        sb.append("    <Meta>\n");
+        sb.append("        <Name>").append(escape(meta.getName())).append("</Name>\n");
+        sb.append("        <Description>").append(escape(meta.getDescription())).append("</Description>\n");
+        sb.append("        <Author>").append(escape(meta.getAuthor())).append("</Author>\n");
+        sb.append("    </Meta>\n");
+        sb.append("    <Clipboard>\n");
+        for (String key : clipboardKeys) {
+            sb.append("        <I k=\"").append(escape(key)).append("\"/>\n");
+        }
+        sb.append("    </Clipboard>\n");
+        sb.append("    <Shards dir=\"").append(escape(shardDir)).append("\">\n");
+        for (ShardRef shard : shards) {
+            sb.append("        <S c=\"").append(escape(shard.category()))
+                    .append("\" f=\"").append(escape(shard.fileName()))
+                    .append("\" bcrc=\"").append(shard.crc())
+                    .append("\"/>\n");
+        }
+        sb.append("    </Shards>\n");
+        sb.append("</XsManifest>\n");
+        return sb.toString();
+    }
+
+    /**
+     * Derive a file name for a category shard that is safe on every file system and unique
+     * among the names already in use, ignoring case.
+     *
+     * @param category  the category name
+     * @param usedNames the lower-cased names already taken, the new name is added to it
+     * @return the shard file name
+     */
+    static String shardFileName(String category, Set<String> usedNames) {
+        StringBuilder safe = new StringBuilder();
+        for (int i = 0; i < category.length() && safe.length() < 64; i++) {
+            char c = category.charAt(i);
+            safe.append((c < 128 && (Character.isLetterOrDigit(c) || c == '-' || c == '_')) ? c : '_');
+        }
+        if (safe.isEmpty()) safe.append('_');
+
+        String name = safe + "." + SHARD_EXTENSION;
+        if (!safe.toString().equals(category) || usedNames.contains(name.toLowerCase(Locale.ROOT))) {
+            CRC32 crc = new CRC32();
+            crc.update(category.getBytes(StandardCharsets.UTF_8));
+            String base = safe + "-" + "%08x".formatted(crc.getValue());
+            name = base + "." + SHARD_EXTENSION;
+            for (int n = 2; usedNames.contains(name.toLowerCase(Locale.ROOT)); n++) {
+                name = base + "-" + n + "." + SHARD_EXTENSION;
+            }
+        }
+        usedNames.add(name.toLowerCase(Locale.ROOT));
+        return name;
+    }
+
+    private static void writeIfChanged(Path path, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        if (Files.isRegularFile(path) && Arrays.equals(Files.readAllBytes(path), bytes)) return;
+        writeAtomically(path, content);
+    }
+
+    private static void writeAtomically(Path path, String content) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.writeString(tmp, content, StandardCharsets.UTF_8);
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private record ShardRef(String category, String fileName, String crc) {
+    }
+
+    private record PendingShard(String category, String fileName, List<DataItem> items, ShardRef previous, boolean unchanged) {
+    }
+
+    private record WrittenShard(ShardRef ref, boolean rewritten) {
+    }
+
+    private record Manifest(ProjectMeta meta, List<String> clipboardKeys, String shardDir, List<ShardRef> shards) {
+    }
+}
@@ -1,27 +1,92 @@
 package top.chiloven.xamlsorter.modules;
 
 import top.chiloven.xamlsorter.entities.DataItem;
+import top.chiloven.xamlsorter.entities.EntryTable;
 import top.chiloven.xamlsorter.utils.TaskExecutorService;
+import javafx.application.Platform;
 import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeTableView;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.*;
 
 public class SortAndRefresher {
     private static final Logger logger = LogManager.getLogger(SortAndRefresher.class);
 
+    private static final Object STATE_KEY = new Object();
+
     /**
-     * Refreshes the TreeTableView with the given grouped data.
+     * Refreshes the TreeTableView with the entries of the given store.
+     * Refreshes are coalesced: this only marks the table as out of date, and the tree is rebuilt once after the
+     * current UI event, so several calls made by one user action cost one rebuild. Only one rebuild runs per
+     * table at a time; calls made while it runs lead to one more rebuild from the latest state when it is done,
+     * so an older rebuild never replaces the result of a newer one.
+     * The existing tree is patched rather than replaced: category, group and entry nodes that are still present
+     * are kept with their expansion and selection, and only the nodes that appeared, disappeared or moved are
+     * inserted or removed, so the table keeps its scroll position and most of its cells.
+     * The tree is built from a snapshot of the store, so edits made meanwhile do not disturb it;
+     * entries removed since the snapshot was taken are left out.
+     * The entries of a category only get tree nodes while the category is expanded; categories start collapsed
+     * if {@link PreferencesManager#isCategoriesCollapsed()} is set, which keeps large projects cheap.
+     * When nested key groups are enabled, the entries of a category are sorted by key and nested one level
+     * per shared key prefix, e.g. {@code Setup.Java.Download...} under {@code Setup...}.
      * This method processes data in a background thread and updates the UI in the JavaFX application thread.
      *
-     * @param table       the TreeTableView to refresh
-     * @param groupedData the data grouped by category
+     * @param table the TreeTableView to refresh
+     * @param store the store holding the project's entries
+     */
+    public static void refresh(TreeTableView<DataItem> table, TranslationStore store) {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> refresh(table, store));
+            return;
+        }
+
+        RefreshState state = state(table);
+        state.store = store;
+        if (state.scheduled) return;
+        state.scheduled = true;
+        Platform.runLater(() -> rebuild(table, state));
+    }
+
+    /**
+     * Show only the given entries, together with the categories and groups that contain them, or all entries again.
+     * Categories holding matches are expanded; which categories were expanded before is remembered and restored when
+     * the filter is cleared, and categories that appeared meanwhile follow {@link PreferencesManager#isCategoriesCollapsed()}.
+     * The table is refreshed like by {@link #refresh(TreeTableView, TranslationStore)}.
+     * This method must be called in the JavaFX application thread.
+     *
+     * @param table the TreeTableView to filter
+     * @param store the store holding the project's entries
+     * @param rows  the row ids of the entries to show, e.g. from {@link SearchIndex#query}, or null to show all
      */
-    public static void refresh(TreeTableView<DataItem> table, Map<String, List<DataItem>> groupedData) {
+    public static void setFilter(TreeTableView<DataItem> table, TranslationStore store, BitSet rows) {
+        RefreshState state = state(table);
+        if (rows != null && state.expansionBeforeFilter == null) {
+            state.expansionBeforeFilter = new HashMap<>();
+            List<TreeItem<DataItem>> categories = table.getRoot() != null ? table.getRoot().getChildren() : List.of();
+            for (TreeItem<DataItem> category : categories) {
+                state.expansionBeforeFilter.put(category.getValue().getKey(), category.isExpanded());
+            }
+        }
+        state.filter = rows;
+        refresh(table, store);
+    }
+
+    private static RefreshState state(TreeTableView<DataItem> table) {
+        return (RefreshState) table.getProperties().computeIfAbsent(STATE_KEY, k -> new RefreshState());
+    }
+
+    private static void rebuild(TreeTableView<DataItem> table, RefreshState state) {
+        state.scheduled = false;
+        if (state.running) {
+            state.pending = true;
+            logger.trace("Rebuild running, refresh deferred for table: {}", table.getId());
+            return;
+        }
+        state.running = true;
+        TranslationStore store = state.store;
+        BitSet filter = state.filter;
         logger.debug("Starting refresh for table: {}", table.getId());
 
         TaskExecutorService.executeTask(
@@ -30,22 +95,32 @@ public class SortAndRefresher {
                     TreeItem<DataItem> root = new TreeItem<>(new DataItem("", "", "", ""));
                     root.setExpanded(true);
 
-                    Map<String, List<DataItem>> sortedGroupedData = new TreeMap<>(groupedData);
-                    logger.debug("Grouped data sorted. Categories: {}", sortedGroupedData.keySet());
+                    boolean nested = PreferencesManager.isNestedKeysEnabled();
+                    boolean collapsed = PreferencesManager.isCategoriesCollapsed();
+                    EntryTable.Snapshot entries = store.snapshot();
+                    Map<String, int[]> sortedGroupedRows = SortEngine.sortCategories(entries.rowsByCategory());
+                    logger.debug("Grouped data sorted. Categories: {}", sortedGroupedRows.keySet());
 
-                    for (Map.Entry<String, List<DataItem>> entry : sortedGroupedData.entrySet()) {
+                    for (Map.Entry<String, int[]> entry : sortedGroupedRows.entrySet()) {
                         String category = entry.getKey();
-                        List<DataItem> items = entry.getValue();
+                        int[] rows = entry.getValue();
+                        int shown = filter == null ? rows.length : countShown(rows, filter);
+                        if (shown == 0) continue;
 
-                        logger.debug("Processing category: {} with {} items", category, items.size());
+                        logger.debug("Processing category: {} with {} items", category, shown);
 
                         DataItem categoryItem = new DataItem(category, category + "...", "-", "-");
-                        TreeItem<DataItem> categoryNode = new TreeItem<>(categoryItem);
-                        categoryNode.setExpanded(true);
-
-                        for (DataItem item : items) {
-                            categoryNode.getChildren().add(new TreeItem<>(item));
-                        }
+                        TreeItem<DataItem> categoryNode = new LazyTreeItem(categoryItem, shown, () -> {
+                            List<TreeItem<DataItem>> children = new ArrayList<>(shown);
+                            // Sort all rows, so the remembered order of the category stays complete, then filter
+                            if (nested) {
+                                int[] sorted = SortEngine.sortRowsByKey(entries, category, rows);
+                                addNested(children, entries, category, filter == null ? sorted : shownRows(sorted, filter, shown));
+                            } else {
+                                addLeaves(children, entries, filter == null ? rows : shownRows(rows, filter, shown));
+                            }
+                            return children;
+                        }, !collapsed || filter != null);
 
                         root.getChildren().add(categoryNode);
                     }
@@ -53,11 +128,238 @@ public class SortAndRefresher {
                     return root;
                 },
                 root -> {
-                    table.setRoot(root);
-                    table.setShowRoot(false);
-                    logger.info("Sorted and refreshed.");
+                    try {
+                        if (table.getRoot() == null) {
+                            table.setRoot(root);
+                        } else {
+                            patch(table.getRoot(), root.getChildren());
+                        }
+                        if (filter != null) {
+                            table.getRoot().getChildren().forEach(category -> category.setExpanded(true));
+                        } else if (state.filter == null && state.expansionBeforeFilter != null) {
+                            restoreExpansion(table.getRoot(), state.expansionBeforeFilter);
+                            state.expansionBeforeFilter = null;
+                        }
+                        table.setShowRoot(false);
+                        logger.info("Sorted and refreshed.");
+                    } finally {
+                        // Even if patching or a loader throws, the next refresh must be able to run
+                        rebuilt(table, state);
+                    }
                 },
-                error -> logger.error("Error refreshing table: ", error)
+                error -> {
+                    logger.error("Error refreshing table: ", error);
+                    rebuilt(table, state);
+                }
         );
     }
+
+    private static void restoreExpansion(TreeItem<DataItem> root, Map<String, Boolean> expansion) {
+        boolean collapsed = PreferencesManager.isCategoriesCollapsed();
+        for (TreeItem<DataItem> category : root.getChildren()) {
+            Boolean expanded = expansion.get(category.getValue().getKey());
+            category.setExpanded(expanded != null ? expanded : !collapsed);
+        }
+    }
+
+    private static int countShown(int[] rows, BitSet filter) {
+        int count = 0;
+        for (int row : rows) {
+            if (filter.get(row)) count++;
+        }
+        return count;
+    }
+
+    private static int[] shownRows(int[] rows, BitSet filter, int count) {
+        int[] shown = new int[count];
+        int i = 0;
+        for (int row : rows) {
+            if (filter.get(row) && i < count) shown[i++] = row;
+        }
+        return i == count ? shown : Arrays.copyOf(shown, i);
+    }
+
+    private static void rebuilt(TreeTableView<DataItem> table, RefreshState state) {
+        state.running = false;
+        if (state.pending) {
+            state.pending = false;
+            refresh(table, state.store);
+        }
+    }
+
+    /**
+     * Add the rows of a category as nested groups, one per key prefix shared by at least two entries.
+     * Chains of single-child levels are shown as one group.
+     *
+     * @param into     the children of the category node to add to
+     * @param entries  the snapshot the rows belong to
+     * @param category the category name
+     * @param rows     the rows of the category in key order
+     */
+    private static void addNested(List<TreeItem<DataItem>> into, EntryTable.Snapshot entries, String category, int[] rows) {
+        String base = category + ".";
+        KeyTrie trie = new KeyTrie();
+        for (int row : rows) {
+            String key = entries.get(row, EntryTable.KEY);
+            if (key != null && key.startsWith(base)) {
+                trie.insert(row, key.substring(base.length()));
+            } else {
+                // Keys outside their category's prefix, e.g. without a '.', stay at the top
+                addLeaves(into, entries, new int[]{row});
+            }
+        }
+        addGroups(into, category, entries, category, trie.node(""));
+    }
+
+    private static void addGroups(List<TreeItem<DataItem>> into, String path, EntryTable.Snapshot entries, String category, KeyTrie.Node node) {
+        for (KeyTrie.Node child : node.children()) {
+            // A single entry, or duplicates of one key, need no group of their own
+            if (child.count() == 1 || child.children().isEmpty()) {
+                addLeaves(into, entries, child.subtreeRows());
+                continue;
+            }
+            String groupPath = path + "." + child.label();
+            TreeItem<DataItem> groupNode = new TreeItem<>(new DataItem(category, groupPath + "...", "-", "-"));
+            groupNode.setExpanded(true);
+            addLeaves(groupNode.getChildren(), entries, child.rows());
+            addGroups(groupNode.getChildren(), groupPath, entries, category, child);
+            into.add(groupNode);
+        }
+    }
+
+    private static void addLeaves(List<TreeItem<DataItem>> into, EntryTable.Snapshot entries, int[] rows) {
+        for (int row : rows) {
+            DataItem item = entries.view(row);
+            if (item != null) into.add(new TreeItem<>(item));
+        }
+    }
+
+    // =========================
+    // Patching
+    // =========================
+
+    /**
+     * Bring the children of an existing node in line with freshly built ones.
+     * Entries are matched by identity and category or group rows by key; matched nodes are kept and patched
+     * recursively, the others are taken from the fresh tree. Kept categories take over the fresh loader and are
+     * only patched while their children are loaded.
+     *
+     * @param current       the node shown in the table
+     * @param freshChildren the children built from the latest snapshot
+     */
+    static void patch(TreeItem<DataItem> current, List<TreeItem<DataItem>> freshChildren) {
+        Map<Object, TreeItem<DataItem>> existing = new HashMap<>();
+        for (TreeItem<DataItem> child : current.getChildren()) {
+            existing.put(identity(child.getValue()), child);
+        }
+
+        List<TreeItem<DataItem>> wanted = new ArrayList<>(freshChildren.size());
+        for (TreeItem<DataItem> child : freshChildren) {
+            TreeItem<DataItem> kept = existing.remove(identity(child.getValue()));
+            if (kept instanceof LazyTreeItem lazy && child instanceof LazyTreeItem freshLazy) {
+                lazy.update(freshLazy);
+                if (lazy.isLoaded()) patch(lazy, freshLazy.children());
+            } else if (kept instanceof LazyTreeItem || child instanceof LazyTreeItem) {
+                kept = null;
+            } else if (kept != null && isGroup(child.getValue())) {
+                patch(kept, child.getChildren());
+            }
+            wanted.add(kept != null ? kept : child);
+        }
+        reorder(current.getChildren(), wanted);
+    }
+
+    private static Object identity(DataItem item) {
+        // Group rows are rebuilt on every refresh, entries are the store's views and keep their identity
+        return isGroup(item) ? item.getKey() : item;
+    }
+
+    private static boolean isGroup(DataItem item) {
+        return item.getKey() != null && item.getKey().endsWith("...");
+    }
+
+    /**
+     * Turn a child list into the wanted list with few changes: nodes that are no longer wanted or out of order
+     * are removed at once, and the missing ones are inserted one run at a time. The nodes kept in place are the
+     * longest run that already has the wanted order, so moving one node does not disturb the others.
+     *
+     * @param children the child list to change
+     * @param wanted   the children it should have, in order
+     */
+    private static void reorder(List<TreeItem<DataItem>> children, List<TreeItem<DataItem>> wanted) {
+        Map<TreeItem<DataItem>, Integer> wantedIndex = new IdentityHashMap<>(wanted.size() * 2);
+        for (int i = 0; i < wanted.size(); i++) {
+            wantedIndex.put(wanted.get(i), i);
+        }
+
+        int[] positions = new int[children.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = wantedIndex.getOrDefault(children.get(i), -1);
+        }
+        boolean[] keep = longestIncreasing(positions);
+
+        Set<TreeItem<DataItem>> drop = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < positions.length; i++) {
+            if (!keep[i]) drop.add(children.get(i));
+        }
+        if (!drop.isEmpty()) children.removeAll(drop);
+
+        // The remaining children now appear in wanted order; insert the missing ones in runs
+        int at = 0;
+        int w = 0;
+        while (w < wanted.size()) {
+            if (at < children.size() && children.get(at) == wanted.get(w)) {
+                at++;
+                w++;
+                continue;
+            }
+            int start = w;
+            while (w < wanted.size() && (at >= children.size() || children.get(at) != wanted.get(w))) w++;
+            children.addAll(at, wanted.subList(start, w));
+            at += w - start;
+        }
+    }
+
+    /**
+     * Mark a longest strictly increasing subsequence of non-negative values.
+     *
+     * @param values the values; negative values are never part of it
+     * @return for every index, whether it belongs to the subsequence
+     */
+    private static boolean[] longestIncreasing(int[] values) {
+        int[] tails = new int[values.length];
+        int[] previous = new int[values.length];
+        int length = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] < 0) continue;
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[tails[mid]] < values[i]) low = mid + 1;
+                else high = mid;
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) length++;
+        }
+        boolean[] member = new boolean[values.length];
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            member[i] = true;
+        }
+        return member;
+    }
+
+    /**
+     * The refresh bookkeeping of one table. Only used in the JavaFX application thread.
+     */
+    private static final class RefreshState {
+        TranslationStore store;
+        BitSet filter;
+        // Category key to expanded, taken when a filter was set on the unfiltered tree
+        Map<String, Boolean> expansionBeforeFilter;
+        boolean scheduled;
+        boolean running;
+        boolean pending;
+    }
 }
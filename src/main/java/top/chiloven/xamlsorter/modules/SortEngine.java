@@ -0,0 +1,271 @@
+package top.chiloven.xamlsorter.modules;
+
+import top.chiloven.xamlsorter.entities.CategoryIds;
+import top.chiloven.xamlsorter.entities.EntryTable;
+import top.chiloven.xamlsorter.modules.preferences.SortMode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.text.Collator;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+/**
+ * Orders categories and entry keys according to the {@link SortMode} preference:
+ * <ul>
+ *     <li>ORDINAL compares UTF-16 values, like {@link String#compareTo(String)};</li>
+ *     <li>NATURAL compares runs of digits by their numeric value, so {@code Item2} comes before {@code Item10};</li>
+ *     <li>COLLATION uses the {@link Collator} of the application language.</li>
+ * </ul>
+ * Each key is turned into a sort key once, e.g. a {@link java.text.CollationKey}, and comparisons only look at
+ * sort keys. The sorted rows of every category are kept together with their sort keys; when a category is sorted
+ * again, rows whose key did not change keep their place and only new or changed rows are sorted and merged in.
+ * Large sorts run in parallel. All methods are thread-safe.
+ */
+public class SortEngine {
+    private static final Logger logger = LogManager.getLogger(SortEngine.class);
+
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    private static final Map<String, CategoryOrder> orders = new ConcurrentHashMap<>();
+    private static final List<Runnable> modeListeners = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<Collator> collators = ThreadLocal.withInitial(
+            () -> Collator.getInstance(PreferencesManager.getLanguage().getLocale()));
+    private static volatile SortMode mode;
+
+    private SortEngine() {
+    }
+
+    /**
+     * Get the current sort mode.
+     *
+     * @return the sort mode
+     */
+    public static SortMode getMode() {
+        SortMode current = mode;
+        if (current == null) {
+            current = PreferencesManager.getSortMode();
+            mode = current;
+        }
+        return current;
+    }
+
+    /**
+     * Change the sort mode, save it as preference and notify the mode listeners.
+     *
+     * @param newMode the new sort mode
+     */
+    public static void setMode(SortMode newMode) {
+        if (newMode == getMode()) return;
+        logger.info("Sort mode changed from {} to {}", mode, newMode);
+        PreferencesManager.setSortMode(newMode);
+        mode = newMode;
+        orders.clear();
+        for (Runnable listener : modeListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Register a listener that is run after the sort mode changed, e.g. to refresh a view.
+     *
+     * @param listener the listener
+     */
+    public static void addModeChangeListener(Runnable listener) {
+        modeListeners.add(listener);
+    }
+
+    /**
+     * Forget the cached order of all categories, e.g. when another project is opened.
+     */
+    public static void clearCache() {
+        orders.clear();
+    }
+
+    /**
+     * Get a comparator for the current sort mode. It computes sort keys on every comparison,
+     * so it is meant for short lists such as category names.
+     *
+     * @return the comparator
+     */
+    public static Comparator<String> comparator() {
+        SortMode current = getMode();
+        if (current == SortMode.ORDINAL) return Comparator.naturalOrder();
+        return (a, b) -> compare(new Keyed(sortKey(current, a), a, 0), new Keyed(sortKey(current, b), b, 0));
+    }
+
+    /**
+     * Order a map of categories by category name in the current sort mode.
+     *
+     * @param grouped the map from category to its content
+     * @param <V>     the type of the content
+     * @return a new map in category order
+     */
+    public static <V> Map<String, V> sortCategories(Map<String, V> grouped) {
+        List<String> categories = new ArrayList<>(grouped.keySet());
+        categories.sort(comparator());
+        Map<String, V> sorted = new LinkedHashMap<>();
+        for (String category : categories) {
+            sorted.put(category, grouped.get(category));
+        }
+        return sorted;
+    }
+
+    /**
+     * Sort the rows of one category by key in the current sort mode.
+     * The result is remembered per category; rows that kept their key since the previous call are not compared again.
+     *
+     * @param snapshot the snapshot the rows belong to
+     * @param category the category name
+     * @param rows     all rows of the category in the snapshot
+     * @return the row ids in key order; the array must not be modified
+     */
+    public static int[] sortRowsByKey(EntryTable.Snapshot snapshot, String category, int[] rows) {
+        SortMode current = getMode();
+        int categoryId = CategoryIds.idOf(category);
+        CategoryOrder previous = orders.get(category);
+        if (previous != null && previous.mode != current) previous = null;
+
+        Keyed[] kept = new Keyed[0];
+        int[] added = rows;
+        if (previous != null) {
+            BitSet inCategory = new BitSet();
+            for (int row : rows) inCategory.set(row);
+
+            // Rows that still hold the same key keep their relative order
+            List<Keyed> still = new ArrayList<>(previous.entries.length);
+            for (Keyed entry : previous.entries) {
+                int row = entry.row;
+                if (inCategory.get(row) && snapshot.isLive(row) && snapshot.getCategoryId(row) == categoryId
+                        && snapshot.get(row, EntryTable.KEY) == entry.text) {
+                    still.add(entry);
+                    inCategory.clear(row);
+                }
+            }
+            if (still.size() == rows.length) return previous.rows;
+            kept = still.toArray(new Keyed[0]);
+            added = inCategory.stream().toArray();
+        }
+
+        Keyed[] fresh = keyed(snapshot, current, added);
+        Keyed[] merged = kept.length == 0 ? fresh : merge(kept, fresh);
+        CategoryOrder order = new CategoryOrder(current, merged);
+        orders.put(category, order);
+        logger.trace("Sorted category '{}': {} kept, {} sorted", category, kept.length, fresh.length);
+        return order.rows;
+    }
+
+    // =========================
+    // Sort keys
+    // =========================
+
+    private static Keyed[] keyed(EntryTable.Snapshot snapshot, SortMode current, int[] rows) {
+        boolean parallel = rows.length >= PARALLEL_THRESHOLD;
+        IntStream stream = parallel ? Arrays.stream(rows).parallel() : Arrays.stream(rows);
+        Keyed[] entries = stream
+                .mapToObj(row -> {
+                    String key = snapshot.get(row, EntryTable.KEY);
+                    return new Keyed(sortKey(current, key), key, row);
+                })
+                .toArray(Keyed[]::new);
+        if (parallel) Arrays.parallelSort(entries, SortEngine::compare);
+        else Arrays.sort(entries, SortEngine::compare);
+        return entries;
+    }
+
+    private static Keyed[] merge(Keyed[] a, Keyed[] b) {
+        Keyed[] merged = new Keyed[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            merged[k++] = compare(a[i], b[j]) <= 0 ? a[i++] : b[j++];
+        }
+        while (i < a.length) merged[k++] = a[i++];
+        while (j < b.length) merged[k++] = b[j++];
+        return merged;
+    }
+
+    private static Object sortKey(SortMode current, String text) {
+        if (text == null) text = "";
+        return switch (current) {
+            case ORDINAL -> text;
+            case NATURAL -> NaturalKey.of(text);
+            case COLLATION -> collators.get().getCollationKey(text);
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Keyed a, Keyed b) {
+        // Sort keys of one sort always come from the same mode, so they are mutually comparable
+        int result = ((Comparable) a.sortKey).compareTo(b.sortKey);
+        if (result != 0) return result;
+        // Keys that sort as equal, e.g. "a01" and "a1", still get a stable order
+        result = a.text == null ? (b.text == null ? 0 : -1) : b.text == null ? 1 : a.text.compareTo(b.text);
+        return result != 0 ? result : Integer.compare(a.row, b.row);
+    }
+
+    /**
+     * A row together with its key and the sort key computed from it.
+     */
+    private record Keyed(Object sortKey, String text, int row) {
+    }
+
+    /**
+     * The sorted rows of a category.
+     */
+    private static final class CategoryOrder {
+        final SortMode mode;
+        final Keyed[] entries;
+        final int[] rows;
+
+        CategoryOrder(SortMode mode, Keyed[] entries) {
+            this.mode = mode;
+            this.entries = entries;
+            this.rows = new int[entries.length];
+            for (int i = 0; i < entries.length; i++) rows[i] = entries[i].row;
+        }
+    }
+
+    /**
+     * Sort key for natural ordering: the text split into alternating runs of non-digits and digits,
+     * with leading zeros removed from digit runs so they compare by length first and then digit by digit.
+     */
+    private record NaturalKey(String[] parts) implements Comparable<NaturalKey> {
+
+        static NaturalKey of(String text) {
+            List<String> parts = new ArrayList<>();
+            int start = 0;
+            int length = text.length();
+            while (start < length) {
+                int end = start;
+                while (end < length && !Character.isDigit(text.charAt(end))) end++;
+                parts.add(text.substring(start, end));
+                if (end == length) break;
+
+                int digits = end;
+                while (digits < length && Character.isDigit(text.charAt(digits))) digits++;
+                int significant = end;
+                while (significant < digits - 1 && text.charAt(significant) == '0') significant++;
+                parts.add(text.substring(significant, digits));
+                start = digits;
+            }
+            return new NaturalKey(parts.toArray(new String[0]));
+        }
+
+        @Override
+        public int compareTo(NaturalKey other) {
+            int count = Math.min(parts.length, other.parts.length);
+            for (int i = 0; i < count; i++) {
+                String a = parts[i];
+                String b = other.parts[i];
+                // Odd parts are digit runs: a longer run is a larger number
+                int result = (i & 1) == 1 && a.length() != b.length()
+                        ? Integer.compare(a.length(), b.length())
+                        : a.compareTo(b);
+                if (result != 0) return result;
+            }
+            return Integer.compare(parts.length, other.parts.length);
+        }
+    }
+}
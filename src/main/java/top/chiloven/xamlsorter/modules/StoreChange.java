@@ -0,0 +1,145 @@
+package top.chiloven.xamlsorter.modules;
+
+import top.chiloven.xamlsorter.entities.EntryTable;
+
+import java.util.*;
+
+/**
+ * The changes made to a {@link TranslationStore} since the previous change event, by entry key.
+ * Changes are coalesced: an entry added and removed again in the same batch does not show up at all, and an
+ * entry that was added is not also reported as updated. A changed key is reported as the removal of the old key
+ * and the addition of the new one.
+ * <p>
+ * A reset change means the whole content was replaced, e.g. by loading a project; it carries no keys and
+ * listeners should rebuild from the store.
+ */
+public final class StoreChange {
+    private final boolean reset;
+    private final Set<String> added;
+    private final Set<String> removed;
+    private final Map<String, Set<Field>> updated;
+
+    private StoreChange(boolean reset, Set<String> added, Set<String> removed, Map<String, Set<Field>> updated) {
+        this.reset = reset;
+        this.added = Collections.unmodifiableSet(added);
+        this.removed = Collections.unmodifiableSet(removed);
+        this.updated = Collections.unmodifiableMap(updated);
+    }
+
+    /**
+     * Check whether the whole content of the store was replaced.
+     *
+     * @return true for a reset
+     */
+    public boolean isReset() {
+        return reset;
+    }
+
+    /**
+     * Get the keys of the entries that were added.
+     *
+     * @return the added keys
+     */
+    public Set<String> addedKeys() {
+        return added;
+    }
+
+    /**
+     * Get the keys of the entries that were removed.
+     *
+     * @return the removed keys
+     */
+    public Set<String> removedKeys() {
+        return removed;
+    }
+
+    /**
+     * Get the keys of the entries whose values changed, with the fields that changed.
+     *
+     * @return a map from key to changed fields
+     */
+    public Map<String, Set<Field>> updatedKeys() {
+        return updated;
+    }
+
+    /**
+     * Get the number of entries the change touches.
+     *
+     * @return the number of added, removed and updated keys
+     */
+    public int size() {
+        return added.size() + removed.size() + updated.size();
+    }
+
+    @Override
+    public String toString() {
+        return reset ? "StoreChange[reset]"
+                : "StoreChange[added=" + added.size() + ", removed=" + removed.size() + ", updated=" + updated.size() + "]";
+    }
+
+    /**
+     * A field of an entry, in the order of the {@link EntryTable} columns.
+     */
+    public enum Field {
+        CATEGORY, KEY, ORIGINAL_TEXT, TRANSLATED_TEXT;
+
+        private static final Field[] COLUMNS = values();
+
+        /**
+         * Get the field stored in a column of the entry table.
+         *
+         * @param column the column, e.g. {@link EntryTable#KEY}
+         * @return the field
+         */
+        public static Field ofColumn(int column) {
+            return COLUMNS[column];
+        }
+    }
+
+    /**
+     * Collects changes until they are published. Not thread-safe; the store only uses it under its writer lock.
+     */
+    static final class Builder {
+        private boolean reset;
+        private Set<String> added = new LinkedHashSet<>();
+        private Set<String> removed = new LinkedHashSet<>();
+        private Map<String, Set<Field>> updated = new LinkedHashMap<>();
+
+        boolean isEmpty() {
+            return !reset && added.isEmpty() && removed.isEmpty() && updated.isEmpty();
+        }
+
+        void added(String key) {
+            if (reset) return;
+            if (removed.remove(key)) {
+                // Removed and added again: the entry still exists, possibly with other values
+                updated.put(key, EnumSet.allOf(Field.class));
+            } else {
+                added.add(key);
+            }
+        }
+
+        void removed(String key) {
+            if (reset) return;
+            if (added.remove(key)) return;
+            updated.remove(key);
+            removed.add(key);
+        }
+
+        void updated(String key, Field field) {
+            if (reset || added.contains(key)) return;
+            updated.computeIfAbsent(key, k -> EnumSet.noneOf(Field.class)).add(field);
+        }
+
+        void reset() {
+            reset = true;
+            added = new LinkedHashSet<>();
+            removed = new LinkedHashSet<>();
+            updated = new LinkedHashMap<>();
+        }
+
+        StoreChange build() {
+            return new StoreChange(reset, added, removed, updated);
+        }
+    }
+}
@@ -0,0 +1,745 @@
+package top.chiloven.xamlsorter.modules;
+
+import top.chiloven.xamlsorter.entities.CategoryIds;
+import top.chiloven.xamlsorter.entities.DataItem;
+import top.chiloven.xamlsorter.entities.EntryTable;
+import javafx.application.Platform;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Central store of the project's translation entries.
+ * Entry values live in a columnar {@link EntryTable}; the store adds a key index for constant-time lookup
+ * and keeps the rows of each category in insertion order as a linked list threaded through row ids,
+ * so adding, finding and removing an entry no longer scans the whole project.
+ * Keys are also indexed in a {@link KeyTrie} on the '.' separator, so the entries under a key prefix can be
+ * counted, listed and renamed without a scan.
+ * Entries handed out by the store are views over table rows; a removed entry is detached and keeps its values.
+ * Projects loaded with at least {@link PreferencesManager#getOffHeapThreshold()} entries keep their texts off-heap.
+ * <p>
+ * Every change, including edits made through an entry's setters, is serialized by one writer lock, and
+ * {@link #write(Runnable)} runs a batch of changes as one step. Background readers such as export, save and
+ * refresh do not lock; they work on an immutable {@link #snapshot()} while editing continues.
+ * <p>
+ * Consumers that want to follow changes register a change listener. Changes are collected while they are made
+ * and published as one coalesced {@link StoreChange} per JavaFX pulse, so listeners can update in proportion to
+ * the size of an edit instead of rebuilding.
+ * With the same dispatch, the JavaFX properties of changed entries are brought up to date, so changes made off
+ * the JavaFX Application Thread, or in a {@link #bulkUpdate(Runnable)}, notify bound cells once per pulse
+ * instead of once per change.
+ * <p>
+ * A {@link DirtyTracker} follows which entries and categories changed, so saving and derived caches can skip
+ * what did not change since their last run.
+ * All methods are thread-safe; methods returning collections return copies.
+ */
+public class TranslationStore {
+    private static final Logger logger = LogManager.getLogger(TranslationStore.class);
+
+    private final ReentrantLock writer = new ReentrantLock();
+    private final EntryTable.Observer changeRecorder = new ChangeRecorder();
+    private final Executor changeDispatcher;
+    private final List<Consumer<StoreChange>> changeListeners = new CopyOnWriteArrayList<>();
+    private StoreChange.Builder pendingChange = new StoreChange.Builder();
+    private final BitSet staleRows = new BitSet();
+    private final DirtyTracker dirty = new DirtyTracker();
+    private boolean publishScheduled = false;
+
+    private EntryTable table = new EntryTable(writer, false);
+    private KeyIndex byKey = new KeyIndex(table);
+    private final KeyTrie byPrefix = new KeyTrie();
+    private CategoryRows[] byCategory = new CategoryRows[16];
+    private int categoryCount = 0;
+    private int[] next = new int[0];
+    private int[] prev = new int[0];
+    private int duplicateKeys = 0;
+
+    /**
+     * Create an empty store that publishes change events on the JavaFX Application Thread.
+     */
+    public TranslationStore() {
+        this(Platform::runLater);
+    }
+
+    /**
+     * Create an empty store that publishes change events through the given executor.
+     *
+     * @param changeDispatcher runs the publishing of collected changes, e.g. on a UI thread
+     */
+    public TranslationStore(Executor changeDispatcher) {
+        this.changeDispatcher = changeDispatcher;
+        table.setObserver(changeRecorder);
+    }
+
+    // =========================
+    // Change events
+    // =========================
+
+    /**
+     * Register a listener for change events. It is called on the dispatching thread, normally the JavaFX
+     * Application Thread, at most once per pulse with all changes made since its previous call.
+     * Changes are only collected while at least one listener is registered.
+     *
+     * @param listener the listener
+     */
+    public void addChangeListener(Consumer<StoreChange> listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Unregister a listener for change events.
+     *
+     * @param listener the listener
+     */
+    public void removeChangeListener(Consumer<StoreChange> listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * Record a change; called with the writer lock held.
+     */
+    private void record(Consumer<StoreChange.Builder> change) {
+        if (changeListeners.isEmpty()) return;
+        change.accept(pendingChange);
+        schedulePublish();
+    }
+
+    /**
+     * Remember that the properties of a row's view may be out of date; called with the writer lock held.
+     * Rows without a displayed view have no properties to update.
+     */
+    private void markStale(int row) {
+        DataItem view = table.existingView(row);
+        if (view == null || !view.hasProperties()) return;
+        staleRows.set(row);
+        schedulePublish();
+    }
+
+    private void schedulePublish() {
+        if (!publishScheduled) {
+            publishScheduled = true;
+            changeDispatcher.execute(this::publishChanges);
+        }
+    }
+
+    private void publishChanges() {
+        Pending pending = locked(() -> {
+            StoreChange collected = pendingChange.isEmpty() ? null : pendingChange.build();
+            pendingChange = new StoreChange.Builder();
+            int[] stale = staleRows.stream().toArray();
+            staleRows.clear();
+            publishScheduled = false;
+            return new Pending(table, stale, collected);
+        });
+        for (int row : pending.staleRows()) {
+            DataItem view = pending.table().existingView(row);
+            if (view != null) view.syncProperties();
+        }
+        StoreChange change = pending.change();
+        if (change == null) return;
+        logger.trace("Publishing {}", change);
+        for (Consumer<StoreChange> listener : changeListeners) {
+            try {
+                listener.accept(change);
+            } catch (Exception e) {
+                logger.error("Store change listener failed", e);
+            }
+        }
+    }
+
+    // =========================
+    // Queries
+    // =========================
+
+    /**
+     * Get the entry with the given key.
+     *
+     * @param key the key to look up
+     * @return the entry, or null if there is none
+     */
+    public DataItem get(String key) {
+        return locked(() -> {
+            int row = byKey.find(key);
+            return row >= 0 ? table.view(row) : null;
+        });
+    }
+
+    /**
+     * Get the rows of the entries with the given key; more than one only if the key is used twice.
+     *
+     * @param key the key to look up
+     * @return the row ids, empty if there is no such entry
+     */
+    public int[] rowsWithKey(String key) {
+        return locked(() -> {
+            if (duplicateKeys == 0) {
+                int row = byKey.find(key);
+                return row >= 0 ? new int[]{row} : new int[0];
+            }
+            return Arrays.stream(byPrefix.rows(key))
+                    .filter(row -> Objects.equals(key, table.get(row, EntryTable.KEY)))
+                    .toArray();
+        });
+    }
+
+    /**
+     * Check whether an entry with the given key exists.
+     *
+     * @param key the key to look up
+     * @return true if the key exists
+     */
+    public boolean contains(String key) {
+        return locked(() -> byKey.find(key) >= 0);
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return the entry count
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Get the number of categories.
+     *
+     * @return the category count
+     */
+    public int categoryCount() {
+        return locked(() -> categoryCount);
+    }
+
+    /**
+     * Count the entries whose key is the prefix or starts with it followed by '.'.
+     *
+     * @param prefix the dotted key prefix, e.g. {@code Setup.Java}; empty for all entries
+     * @return the entry count
+     */
+    public int countWithPrefix(String prefix) {
+        return locked(() -> byPrefix.count(prefix));
+    }
+
+    /**
+     * Get the entries whose key is the prefix or starts with it followed by '.'.
+     *
+     * @param prefix the dotted key prefix, e.g. {@code Setup.Java}; empty for all entries
+     * @return a copy of the matching entries
+     */
+    public List<DataItem> withPrefix(String prefix) {
+        return locked(() -> {
+            int[] rows = byPrefix.rows(prefix);
+            List<DataItem> items = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                items.add(table.view(row));
+            }
+            return items;
+        });
+    }
+
+    /**
+     * Get the rows of the given entries, e.g. of a selection. Entries that are not in this store, such as
+     * category placeholders, are left out.
+     *
+     * @param items the entries
+     * @return the row ids of the stored entries
+     */
+    public BitSet rowsOf(Collection<DataItem> items) {
+        return locked(() -> {
+            BitSet rows = new BitSet(table.rowCount());
+            for (DataItem item : items) {
+                if (item != null && item.getTable() == table && table.isLive(item.getRow())) rows.set(item.getRow());
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Get the entries of the given rows. Rows removed meanwhile are left out.
+     *
+     * @param rows the row ids, e.g. from {@link #rowsOf(Collection)}
+     * @return the entries in row order
+     */
+    public List<DataItem> items(BitSet rows) {
+        return locked(() -> {
+            List<DataItem> items = new ArrayList<>(rows.cardinality());
+            for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                if (table.isLive(row)) items.add(table.view(row));
+            }
+            return items;
+        });
+    }
+
+    /**
+     * Get the tracker of the entries and categories changed since loading or saving.
+     *
+     * @return the dirty tracker
+     */
+    public DirtyTracker dirtyTracker() {
+        return dirty;
+    }
+
+    /**
+     * Take an immutable snapshot of all entries, for reading many entries in the background.
+     * The snapshot is consistent: a batch run by {@link #write(Runnable)} is either fully in it or not at all.
+     *
+     * @return the snapshot
+     */
+    public EntryTable.Snapshot snapshot() {
+        return locked(() -> table.snapshot());
+    }
+
+    /**
+     * Get the entries of one category.
+     *
+     * @param category the category name
+     * @return a copy of the category's entries in insertion order, empty if the category does not exist
+     */
+    public List<DataItem> getCategory(String category) {
+        int id = CategoryIds.idOf(category);
+        return locked(() -> {
+            CategoryRows rows = id >= 0 && id < byCategory.length ? byCategory[id] : null;
+            return rows != null ? viewsOf(rows) : new ArrayList<>();
+        });
+    }
+
+    /**
+     * Get all entries, grouped by category.
+     *
+     * @return a copy of all entries
+     */
+    public List<DataItem> items() {
+        return locked(() -> {
+            List<DataItem> all = new ArrayList<>(table.size());
+            for (CategoryRows rows : byCategory) {
+                if (rows == null) continue;
+                for (int row = rows.head; row >= 0; row = next[row]) {
+                    all.add(table.view(row));
+                }
+            }
+            return all;
+        });
+    }
+
+    /**
+     * Get the entries grouped by category, with categories sorted by name.
+     *
+     * @return a new sorted map from category to a copy of its entries
+     */
+    public SortedMap<String, List<DataItem>> asGroupedMap() {
+        return locked(() -> {
+            SortedMap<String, List<DataItem>> grouped = new TreeMap<>();
+            for (int id = 0; id < byCategory.length; id++) {
+                if (byCategory[id] != null) grouped.put(CategoryIds.nameOf(id), viewsOf(byCategory[id]));
+            }
+            return grouped;
+        });
+    }
+
+    /**
+     * Run an action for every entry while holding the writer lock, so no change can interleave.
+     *
+     * @param action the action to run
+     */
+    public void forEach(Consumer<DataItem> action) {
+        write(() -> {
+            for (CategoryRows rows : byCategory) {
+                if (rows == null) continue;
+                for (int row = rows.head; row >= 0; row = next[row]) {
+                    action.accept(table.view(row));
+                }
+            }
+        });
+    }
+
+    // =========================
+    // Mutations
+    // =========================
+
+    /**
+     * Run a batch of changes as one step. No other change interleaves with the batch, and snapshots see either
+     * none or all of it. Batches should be short, since edits on the JavaFX Application Thread wait for them.
+     * The batch must not wait for another thread that changes the store.
+     *
+     * @param batch the changes to run
+     */
+    public void write(Runnable batch) {
+        writer.lock();
+        try {
+            batch.run();
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Run a batch of many changes as one step with JavaFX property notifications suspended.
+     * Entries changed through their setters inside the batch do not notify bound cells one by one; their
+     * properties are updated together with the next change event, on the JavaFX Application Thread.
+     * Otherwise the batch behaves like {@link #write(Runnable)}.
+     *
+     * @param changes the changes to run
+     */
+    public void bulkUpdate(Runnable changes) {
+        write(() -> table.batch(changes));
+    }
+
+    /**
+     * Add an entry to the end of its category. A detached entry becomes a view of its new row.
+     * An entry without a category gets the one derived from its key.
+     *
+     * @param item the entry to add
+     */
+    public void add(DataItem item) {
+        write(() -> {
+            if (item.getTable() == table) return;
+            if (item.getCategoryId() == CategoryIds.NONE) item.setCategory(CategoryIds.categoryOf(item.getKey()));
+            int row = table.append(item);
+            link(row);
+            index(row);
+        });
+    }
+
+    /**
+     * Remove an entry. Its category is removed as well once it is empty.
+     * The entry is detached from the store and keeps its values.
+     *
+     * @param item the entry to remove
+     * @return true if the entry was in the store
+     */
+    public boolean remove(DataItem item) {
+        return locked(() -> {
+            if (item.getTable() != table || !table.isLive(item.getRow())) return false;
+            int row = item.getRow();
+            unlink(row);
+            unindex(row);
+            table.remove(row);
+            return true;
+        });
+    }
+
+    /**
+     * Remove the entries of the given rows as one step. Categories are removed as well once they are empty.
+     * Rows removed meanwhile are skipped.
+     *
+     * @param rows the row ids, e.g. from {@link #rowsOf(Collection)}
+     * @return the keys of the removed entries, in row order
+     */
+    public List<String> remove(BitSet rows) {
+        return locked(() -> {
+            List<String> removed = new ArrayList<>(rows.cardinality());
+            for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                if (!table.isLive(row)) continue;
+                removed.add(table.get(row, EntryTable.KEY));
+                unlink(row);
+                unindex(row);
+                table.remove(row);
+            }
+            return removed;
+        });
+    }
+
+    /**
+     * Change the key of an entry and update the index.
+     *
+     * @param item   the entry to change
+     * @param newKey the new key
+     */
+    public void setKey(DataItem item, String newKey) {
+        write(() -> {
+            boolean stored = item.getTable() == table && table.isLive(item.getRow());
+            if (stored) unindex(item.getRow());
+            item.setKey(newKey);
+            if (stored) index(item.getRow());
+        });
+    }
+
+    /**
+     * Replace a key prefix in every entry under it, e.g. {@code Setup.Java} to {@code Install.Java} turns
+     * {@code Setup.Java.Title} into {@code Install.Java.Title}. Entries whose derived category changes
+     * move to the new category. Nothing is changed if a new key is already used by an entry outside the prefix.
+     *
+     * @param oldPrefix the dotted prefix to replace
+     * @param newPrefix the dotted prefix to put in its place
+     * @return the number of renamed entries
+     * @throws IllegalArgumentException if the new prefix is empty
+     * @throws IllegalStateException    if a new key is already used
+     */
+    public int renamePrefix(String oldPrefix, String newPrefix) {
+        String from = trimPrefix(oldPrefix);
+        String to = trimPrefix(newPrefix);
+        if (to.isEmpty()) throw new IllegalArgumentException("New prefix must not be empty");
+        return locked(() -> {
+            int[] rows = byPrefix.rows(from);
+            if (rows.length == 0 || from.equals(to)) return 0;
+
+            String[] newKeys = new String[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                String key = table.get(rows[i], EntryTable.KEY);
+                newKeys[i] = to + key.substring(from.length());
+                // Keys under the old prefix move as well, so only the others can collide
+                int existing = byKey.find(newKeys[i]);
+                if (existing >= 0 && !hasPrefix(table.get(existing, EntryTable.KEY), from)) {
+                    throw new IllegalStateException("Key already exists: " + newKeys[i]);
+                }
+            }
+
+            for (int i = 0; i < rows.length; i++) {
+                int row = rows[i];
+                unindex(row);
+                int id = CategoryIds.resolve(newKeys[i]);
+                if (id != table.getCategoryId(row)) {
+                    dirty.categoryChanged(table.getCategoryId(row));
+                    unlink(row);
+                    table.set(row, EntryTable.CATEGORY, CategoryIds.nameOf(id));
+                    link(row);
+                }
+                table.set(row, EntryTable.KEY, newKeys[i]);
+                index(row);
+            }
+            logger.debug("Renamed prefix '{}' to '{}' in {} entries", from, to, rows.length);
+            return rows.length;
+        });
+    }
+
+    /**
+     * Replace the whole content of the store.
+     *
+     * @param items the new entries
+     */
+    public void replaceAll(Collection<DataItem> items) {
+        write(() -> {
+            int threshold = PreferencesManager.getOffHeapThreshold();
+            boolean textOffHeap = threshold > 0 && items.size() >= threshold;
+            if (textOffHeap) {
+                logger.info("{} entries reach the off-heap threshold of {}, keeping texts off-heap", items.size(), threshold);
+            }
+            clear(textOffHeap);
+            for (DataItem item : items) {
+                add(item);
+            }
+            // The new content is what was loaded, so nothing in it is dirty yet
+            dirty.markLoaded();
+            logger.debug("Store loaded with {} entries in {} categories", table.size(), categoryCount);
+        });
+    }
+
+    /**
+     * Rebuild the category and key indexes after entries were changed in place,
+     * e.g. by a batch edit that rewrites keys and categories. Entries keep their rows.
+     */
+    public void reindex() {
+        write(() -> {
+            byKey.clear();
+            byPrefix.clear();
+            clearCategories();
+            duplicateKeys = 0;
+            table.rows().forEachOrdered(row -> {
+                link(row);
+                index(row);
+                byPrefix.insert(row, table.get(row, EntryTable.KEY));
+            });
+            logger.debug("Store re-indexed: {} entries in {} categories", table.size(), categoryCount);
+        });
+    }
+
+    /**
+     * Derive the category of every entry from its key again and rebuild the indexes,
+     * e.g. after a batch edit rewrote keys. Entries keep their rows.
+     */
+    public void regroup() {
+        write(() -> {
+            table.rows().forEach(row -> {
+                int id = CategoryIds.resolve(table.get(row, EntryTable.KEY));
+                if (id != table.getCategoryId(row)) {
+                    dirty.categoryChanged(table.getCategoryId(row));
+                    table.set(row, EntryTable.CATEGORY, CategoryIds.nameOf(id));
+                }
+            });
+            reindex();
+        });
+    }
+
+    /**
+     * Remove all entries. Entries handed out before are detached and keep their values.
+     */
+    public void clear() {
+        write(() -> clear(false));
+    }
+
+    // =========================
+    // Index maintenance
+    // =========================
+
+    private void clearCategories() {
+        Arrays.fill(byCategory, null);
+        categoryCount = 0;
+    }
+
+    private <T> T locked(Supplier<T> action) {
+        writer.lock();
+        try {
+            return action.get();
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Detach all entries and start over with a new table, so row ids of earlier snapshots never match new entries.
+     */
+    private void clear(boolean textOffHeap) {
+        table.setObserver(null);
+        table.clear();
+        table.close();
+        table = new EntryTable(writer, textOffHeap);
+        table.setObserver(changeRecorder);
+        record(StoreChange.Builder::reset);
+        staleRows.clear();
+        dirty.markLoaded();
+        byKey = new KeyIndex(table);
+        byPrefix.clear();
+        clearCategories();
+        next = new int[0];
+        prev = new int[0];
+        duplicateKeys = 0;
+    }
+
+    private static String trimPrefix(String prefix) {
+        if (prefix == null) return "";
+        return prefix.endsWith(".") ? prefix.substring(0, prefix.length() - 1) : prefix;
+    }
+
+    private static boolean hasPrefix(String key, String prefix) {
+        return key != null && key.startsWith(prefix)
+                && (key.length() == prefix.length() || key.charAt(prefix.length()) == '.');
+    }
+
+    private List<DataItem> viewsOf(CategoryRows rows) {
+        List<DataItem> items = new ArrayList<>(rows.size);
+        for (int row = rows.head; row >= 0; row = next[row]) {
+            items.add(table.view(row));
+        }
+        return items;
+    }
+
+    private void link(int row) {
+        if (row >= next.length) {
+            int capacity = Math.max(16, Math.max(row + 1, next.length * 2));
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+        }
+        int id = table.getCategoryId(row);
+        if (id >= byCategory.length) byCategory = Arrays.copyOf(byCategory, Math.max(id + 1, byCategory.length * 2));
+        CategoryRows rows = byCategory[id];
+        if (rows == null) {
+            rows = new CategoryRows();
+            byCategory[id] = rows;
+            categoryCount++;
+        }
+        next[row] = -1;
+        prev[row] = rows.tail;
+        if (rows.tail >= 0) next[rows.tail] = row;
+        else rows.head = row;
+        rows.tail = row;
+        rows.size++;
+    }
+
+    private void unlink(int row) {
+        int id = table.getCategoryId(row);
+        CategoryRows rows = id >= 0 && id < byCategory.length ? byCategory[id] : null;
+        if (prev[row] >= 0) next[prev[row]] = next[row];
+        else if (rows != null) rows.head = next[row];
+        if (next[row] >= 0) prev[next[row]] = prev[row];
+        else if (rows != null) rows.tail = prev[row];
+        if (rows != null && --rows.size == 0) {
+            byCategory[id] = null;
+            categoryCount--;
+        }
+    }
+
+    private void index(int row) {
+        if (!byKey.putIfAbsent(row)) {
+            duplicateKeys++;
+            logger.debug("Duplicate key '{}' in store", table.get(row, EntryTable.KEY));
+        }
+    }
+
+    private void unindex(int row) {
+        String key = table.get(row, EntryTable.KEY);
+        if (!byKey.remove(key, row)) {
+            if (duplicateKeys > 0 && byKey.find(key) >= 0) duplicateKeys--;
+            return;
+        }
+        if (duplicateKeys > 0) {
+            // Another entry may share the key; only then is a column scan needed to keep it reachable
+            table.rows()
+                    .filter(other -> other != row && Objects.equals(key, table.get(other, EntryTable.KEY)))
+                    .findFirst()
+                    .ifPresent(other -> {
+                        byKey.putIfAbsent(other);
+                        duplicateKeys--;
+                    });
+        }
+    }
+
+    /**
+     * Keeps the prefix trie in step with every key change, including edits made through an entry's setters,
+     * marks changed rows dirty and their views for a property update, and turns the table's row changes into
+     * key-based change events.
+     */
+    private final class ChangeRecorder implements EntryTable.Observer {
+        @Override
+        public void rowAdded(int row) {
+            dirty.rowChanged(row, table.getCategoryId(row));
+            byPrefix.insert(row, table.get(row, EntryTable.KEY));
+            record(change -> change.added(table.get(row, EntryTable.KEY)));
+        }
+
+        @Override
+        public void rowRemoved(int row) {
+            dirty.rowRemoved(row, table.getCategoryId(row));
+            byPrefix.remove(row, table.get(row, EntryTable.KEY));
+            record(change -> change.removed(table.get(row, EntryTable.KEY)));
+        }
+
+        @Override
+        public void keyChanged(int row, String oldKey) {
+            if (byPrefix.remove(row, oldKey)) byPrefix.insert(row, table.get(row, EntryTable.KEY));
+            dirty.rowChanged(row, table.getCategoryId(row));
+            markStale(row);
+            record(change -> {
+                change.removed(oldKey);
+                change.added(table.get(row, EntryTable.KEY));
+            });
+        }
+
+        @Override
+        public void valueChanged(int row, int column) {
+            dirty.rowChanged(row, table.getCategoryId(row));
+            markStale(row);
+            record(change -> change.updated(table.get(row, EntryTable.KEY), StoreChange.Field.ofColumn(column)));
+        }
+    }
+
+    /**
+     * What a change event publishes: the table whose stale rows need their properties updated, and the change.
+     */
+    private record Pending(EntryTable table, int[] staleRows, StoreChange change) {
+    }
+
+    /**
+     * Head, tail and size of the linked list of a category's rows.
+     */
+    private static final class CategoryRows {
+        int head = -1;
+        int tail = -1;
+        int size = 0;
+    }
+}
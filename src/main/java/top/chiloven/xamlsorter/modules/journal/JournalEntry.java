@@ -0,0 +1,109 @@
+package top.chiloven.xamlsorter.modules.journal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * A single committed edit recorded in the project journal.
+ *
+ * @param type  the kind of edit
+ * @param key   the key of the affected entry
+ * @param field the changed field ("k", "ot" or "tt") for SET, the category for ADD, unused for DELETE
+ * @param value the new value for SET, unused otherwise
+ */
+public record JournalEntry(Type type, String key, String field, String value) {
+
+    public enum Type {
+        ADD, SET, DELETE
+    }
+
+    public static JournalEntry add(String key, String category) {
+        return new JournalEntry(Type.ADD, key, category, "");
+    }
+
+    public static JournalEntry set(String key, String field, String value) {
+        return new JournalEntry(Type.SET, key, field, value);
+    }
+
+    public static JournalEntry delete(String key) {
+        return new JournalEntry(Type.DELETE, key, "", "");
+    }
+
+    /**
+     * Encode this entry as one journal line, prefixed with the CRC32 of its payload.
+     *
+     * @return the encoded line without the trailing line break
+     */
+    public String encode() {
+        String payload = type.name() + '\t' + escape(key) + '\t' + escape(field) + '\t' + escape(value);
+        return "%08x\t%s".formatted(checksum(payload), payload);
+    }
+
+    /**
+     * Decode a journal line written by {@link #encode()}.
+     *
+     * @param line the line to decode
+     * @return the decoded entry, or null if the line is truncated or its checksum does not match
+     */
+    public static JournalEntry decode(String line) {
+        int tab = line.indexOf('\t');
+        if (tab != 8) return null;
+
+        String payload = line.substring(tab + 1);
+        try {
+            if (Long.parseLong(line.substring(0, tab), 16) != checksum(payload)) return null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        String[] parts = payload.split("\t", -1);
+        if (parts.length != 4) return null;
+        try {
+            return new JournalEntry(Type.valueOf(parts[0]), unescape(parts[1]), unescape(parts[2]), unescape(parts[3]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long checksum(String payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static String escape(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '\t' -> sb.append("\\t");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String unescape(String s) {
+        if (s.indexOf('\\') < 0) return s;
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char next = s.charAt(++i);
+                switch (next) {
+                    case 't' -> sb.append('\t');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    default -> sb.append(next);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,374 @@
+package top.chiloven.xamlsorter.modules.journal;
+
+import top.chiloven.xamlsorter.entities.DataItem;
+import top.chiloven.xamlsorter.modules.ProjectFileManager;
+import top.chiloven.xamlsorter.modules.ShardedProjectStore;
+import top.chiloven.xamlsorter.utils.StringPool;
+import top.chiloven.xamlsorter.utils.TaskExecutorService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+/**
+ * Append-only journal of committed edits, stored next to the project file as {@code <project>.journal}.
+ * Saving appends the pending edits and fsyncs only the journal; once the journal grows past
+ * {@link #COMPACT_THRESHOLD} it is folded back into the project file in the background.
+ */
+public class ProjectJournal {
+    private static final Logger logger = LogManager.getLogger(ProjectJournal.class);
+
+    /**
+     * Journal size in bytes above which a compaction is scheduled after saving.
+     */
+    public static final long COMPACT_THRESHOLD = 1L << 20;
+
+    private final Object fileLock = new Object();
+    private final List<JournalEntry> pending = new ArrayList<>();
+    private File projectFile = null;
+    private boolean fullSaveRequired = true;
+    private int fullSaveRequests = 0;
+    private boolean compacting = false;
+
+    /**
+     * Get the journal file belonging to a project file.
+     *
+     * @param projectFile the .xsproject file
+     * @return the journal file next to it
+     */
+    public static File journalFileFor(File projectFile) {
+        return new File(projectFile.getPath() + ".journal");
+    }
+
+    // =========================
+    // Recording
+    // =========================
+
+    /**
+     * Record a changed field of an existing entry.
+     *
+     * @param key   the key of the entry before the change
+     * @param field "k", "ot" or "tt"
+     * @param value the new value
+     */
+    public synchronized void recordSet(String key, String field, String value) {
+        pending.add(JournalEntry.set(key, field, value));
+    }
+
+    /**
+     * Record a newly added entry together with its texts.
+     *
+     * @param item the added DataItem
+     */
+    public synchronized void recordAdd(DataItem item) {
+        pending.add(JournalEntry.add(item.getKey(), item.getCategory()));
+        pending.add(JournalEntry.set(item.getKey(), "ot", item.getOriginalText()));
+        pending.add(JournalEntry.set(item.getKey(), "tt", item.getTranslatedText()));
+    }
+
+    /**
+     * Record a deleted entry.
+     *
+     * @param key the key of the deleted entry
+     */
+    public synchronized void recordDelete(String key) {
+        pending.add(JournalEntry.delete(key));
+    }
+
+    /**
+     * Mark that the next save has to rewrite the whole project file,
+     * e.g. after a change the journal does not describe (metadata, batch regex edits).
+     */
+    public synchronized void requireFullSave() {
+        fullSaveRequired = true;
+        fullSaveRequests++;
+    }
+
+    // =========================
+    // Lifecycle
+    // =========================
+
+    /**
+     * Attach the journal to a freshly opened project file. Existing journal entries on disk are kept,
+     * since they have already been replayed into the loaded data.
+     *
+     * @param file the opened project file
+     */
+    public synchronized void bind(File file) {
+        projectFile = file;
+        pending.clear();
+        fullSaveRequired = false;
+    }
+
+    /**
+     * Detach the journal, e.g. when a new unsaved project is created.
+     */
+    public synchronized void reset() {
+        projectFile = null;
+        pending.clear();
+        fullSaveRequired = true;
+    }
+
+    /**
+     * Check whether saving to the given file can be done by appending to the journal.
+     * Sharded projects are never journaled, since saving them already rewrites only the changed shards.
+     *
+     * @param file the file the project is being saved to
+     * @return true if only the journal needs to be written
+     */
+    public synchronized boolean canAppend(File file) {
+        return !fullSaveRequired && projectFile != null && projectFile.equals(file) && file.isFile()
+                && !ShardedProjectStore.isManifest(file);
+    }
+
+    /**
+     * Capture the journal state right before a full save snapshot is taken.
+     * This method should be called on the JavaFX Application Thread.
+     *
+     * @return the mark to pass to {@link #markFullSaved(File, Mark)}
+     */
+    public synchronized Mark mark() {
+        return new Mark(pending.size(), fullSaveRequests);
+    }
+
+    /**
+     * Run an action while holding the journal's file lock, so it cannot interleave with an append or compaction.
+     *
+     * @param action the action to run
+     * @param <T>    the result type
+     * @return the result of the action
+     * @throws Exception if the action fails
+     */
+    public <T> T withFileLock(Callable<T> action) throws Exception {
+        synchronized (fileLock) {
+            return action.call();
+        }
+    }
+
+    /**
+     * Called after the whole project has been written to {@code file}: the journal on disk is discarded
+     * and every edit recorded before {@code mark} is dropped.
+     *
+     * @param file the file the project was written to
+     * @param mark the mark taken before the snapshot was saved
+     * @throws IOException if the journal file cannot be deleted
+     */
+    public void markFullSaved(File file, Mark mark) throws IOException {
+        synchronized (fileLock) {
+            Files.deleteIfExists(journalFileFor(file).toPath());
+        }
+        synchronized (this) {
+            if (!file.equals(projectFile)) {
+                pending.clear();
+            } else {
+                pending.subList(0, Math.min(mark.pendingCount(), pending.size())).clear();
+            }
+            projectFile = file;
+            if (fullSaveRequests == mark.fullSaveRequests()) {
+                fullSaveRequired = false;
+            }
+        }
+    }
+
+    // =========================
+    // Writing
+    // =========================
+
+    /**
+     * Append all pending edits to the journal file and force them to disk.
+     * This method is called from a background thread.
+     *
+     * @return the size of the journal file after appending
+     * @throws IOException if the journal cannot be written
+     */
+    public long append() throws IOException {
+        List<JournalEntry> batch;
+        File file;
+        synchronized (this) {
+            batch = new ArrayList<>(pending);
+            pending.clear();
+            file = projectFile;
+        }
+        Path path = journalFileFor(file).toPath();
+
+        synchronized (fileLock) {
+            if (!batch.isEmpty()) {
+                StringBuilder sb = new StringBuilder();
+                for (JournalEntry entry : batch) {
+                    sb.append(entry.encode()).append('\n');
+                }
+                try (FileChannel channel = FileChannel.open(path,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(true);
+                } catch (IOException e) {
+                    synchronized (this) {
+                        pending.addAll(0, batch);
+                    }
+                    throw e;
+                }
+                logger.debug("Appended {} journal entries to {}", batch.size(), path);
+            }
+            return Files.exists(path) ? Files.size(path) : 0;
+        }
+    }
+
+    /**
+     * Fold the journal into the project file in the background if it has grown past {@link #COMPACT_THRESHOLD}.
+     *
+     * @param journalSize the current size of the journal file
+     */
+    public void compactIfNeeded(long journalSize) {
+        if (journalSize < COMPACT_THRESHOLD) return;
+
+        File file;
+        synchronized (this) {
+            if (compacting || projectFile == null) return;
+            compacting = true;
+            file = projectFile;
+        }
+
+        logger.info("Journal reached {} bytes, compacting into {}", journalSize, file.getAbsolutePath());
+        TaskExecutorService.executeTask(
+                "CompactJournal",
+                () -> {
+                    try {
+                        return withFileLock(() -> compact(file));
+                    } catch (Exception e) {
+                        throw new RuntimeException("Failed to compact journal of: " + file.getAbsolutePath(), e);
+                    } finally {
+                        synchronized (this) {
+                            compacting = false;
+                        }
+                    }
+                },
+                replayed -> logger.info("Compacted {} journal entries into {}", replayed, file.getAbsolutePath()),
+                error -> logger.error("Failed to compact journal of {}", file.getAbsolutePath(), error)
+        );
+    }
+
+    /**
+     * Rewrite the project file from its current content plus the journal, then truncate the journal.
+     * Must be called while holding the file lock.
+     *
+     * @param file the project file
+     * @return the number of journal entries folded into the file
+     * @throws Exception if reading or writing fails
+     */
+    private int compact(File file) throws Exception {
+        ProjectFileManager.LoadedProject loaded = ProjectFileManager.readXsProject(file);
+        if (!loaded.damagedCategories().isEmpty()) {
+            throw new IOException("Project file has damaged categories " + loaded.damagedCategories() + ", not compacting");
+        }
+        int replayed = replay(file, loaded.items());
+
+        File tmp = new File(file.getPath() + ".tmp");
+        ProjectFileManager.writeXsProject(tmp, loaded.meta(), loaded.items(), loaded.clipboard());
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(journalFileFor(file).toPath());
+        return replayed;
+    }
+
+    // =========================
+    // Replaying
+    // =========================
+
+    /**
+     * Apply the entries of a project's journal to the items loaded from the project file.
+     * Replaying stops at the first damaged line, which is what a torn final write looks like.
+     *
+     * @param projectFile the project file whose journal should be replayed
+     * @param items       the items loaded from the project file, modified in place
+     * @return the number of entries applied
+     * @throws IOException if the journal exists but cannot be read
+     */
+    public static int replay(File projectFile, List<DataItem> items) throws IOException {
+        Path path = journalFileFor(projectFile).toPath();
+        if (!Files.isRegularFile(path)) return 0;
+
+        Map<String, DataItem> byKey = new HashMap<>();
+        for (DataItem item : items) {
+            byKey.putIfAbsent(item.getKey(), item);
+        }
+        Set<DataItem> removed = new HashSet<>();
+
+        int applied = 0;
+        int lineNo = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isEmpty()) continue;
+
+                JournalEntry entry = JournalEntry.decode(line);
+                if (entry == null) {
+                    logger.warn("Journal {} is damaged at line {}, ignoring the remaining entries.", path, lineNo);
+                    break;
+                }
+                apply(entry, byKey, items, removed);
+                applied++;
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            items.removeIf(removed::contains);
+        }
+        return applied;
+    }
+
+    private static void apply(JournalEntry entry, Map<String, DataItem> byKey, List<DataItem> items, Set<DataItem> removed) {
+        switch (entry.type()) {
+            case ADD -> {
+                if (!byKey.containsKey(entry.key())) {
+                    DataItem item = new DataItem(StringPool.intern(entry.field()), StringPool.intern(entry.key()), "", "");
+                    byKey.put(entry.key(), item);
+                    items.add(item);
+                }
+            }
+            case SET -> {
+                DataItem item = byKey.get(entry.key());
+                if (item == null) {
+                    logger.debug("Journal entry for unknown key '{}' skipped.", entry.key());
+                    return;
+                }
+                switch (entry.field()) {
+                    case "k" -> {
+                        byKey.remove(entry.key());
+                        item.setKey(StringPool.intern(entry.value()));
+                        byKey.put(entry.value(), item);
+                    }
+                    case "ot" -> item.setOriginalText(StringPool.intern(entry.value()));
+                    case "tt" -> item.setTranslatedText(StringPool.intern(entry.value()));
+                    default -> logger.debug("Unknown journal field '{}' skipped.", entry.field());
+                }
+            }
+            case DELETE -> {
+                DataItem item = byKey.remove(entry.key());
+                if (item != null) removed.add(item);
+            }
+        }
+    }
+
+    /**
+     * Journal state captured before a full save.
+     *
+     * @param pendingCount     number of pending edits already included in the snapshot
+     * @param fullSaveRequests value of the full-save request counter at that time
+     */
+    public record Mark(int pendingCount, int fullSaveRequests) {
+    }
+}
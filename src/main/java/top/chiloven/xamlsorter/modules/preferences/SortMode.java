@@ -0,0 +1,7 @@
+package top.chiloven.xamlsorter.modules.preferences;
+
+public enum SortMode {
+    ORDINAL,
+    NATURAL,
+    COLLATION
+}
@@ -1,5 +1,7 @@
 package top.chiloven.xamlsorter.modules.undo;
 
+import top.chiloven.xamlsorter.utils.StringPool;
+
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -15,8 +17,8 @@ public class SetDataItemFieldCommand implements UndoableCommand {
         this.name = name;
         this.getter = getter;
         this.setter = setter;
-        this.before = getter.get();
-        this.after = newValue;
+        this.before = StringPool.intern(getter.get());
+        this.after = StringPool.intern(newValue);
     }
 
     @Override
@@ -4,13 +4,18 @@ import top.chiloven.xamlsorter.entities.DataItem;
 import top.chiloven.xamlsorter.entities.MultiLineTreeTableCell;
 import top.chiloven.xamlsorter.entities.ProjectMeta;
 import top.chiloven.xamlsorter.modules.DataOperationHelper;
+import top.chiloven.xamlsorter.modules.PreferencesManager;
 import top.chiloven.xamlsorter.modules.ProjectManager;
 import top.chiloven.xamlsorter.modules.SortAndRefresher;
+import top.chiloven.xamlsorter.modules.SortEngine;
+import top.chiloven.xamlsorter.modules.TranslationStore;
+import top.chiloven.xamlsorter.modules.journal.ProjectJournal;
 import top.chiloven.xamlsorter.modules.undo.SetDataItemFieldCommand;
 import top.chiloven.xamlsorter.modules.undo.UndoManager;
 import top.chiloven.xamlsorter.ui.dialogs.AboutDialog;
 import top.chiloven.xamlsorter.ui.dialogs.PreferencesDialog;
 import top.chiloven.xamlsorter.ui.widgets.ContextMenu;
+import top.chiloven.xamlsorter.ui.widgets.FilterBar;
 import top.chiloven.xamlsorter.ui.widgets.TopMenuBar;
 import top.chiloven.xamlsorter.utils.ShowAlert;
 import javafx.geometry.Insets;
@@ -33,9 +38,11 @@ import static top.chiloven.xamlsorter.modules.I18n.getLang;
 
 public class MainPage extends StackPane {
     private static final Logger logger = LogManager.getLogger(MainPage.class);
+    private static final double FIXED_ROW_HEIGHT = 26;
     private static ProjectMeta currentProjectMeta;
-    private final Map<String, List<DataItem>> groupedData = new HashMap<>();
+    private final TranslationStore store = new TranslationStore();
     private final UndoManager undoManager = new UndoManager();
+    private final ProjectJournal journal = new ProjectJournal();
     private final TreeTableView<DataItem> translationTreeTable;
     private final TreeTableColumn<DataItem, String> keyColumn;
     private final TreeTableColumn<DataItem, String> originalColumn;
@@ -43,6 +50,7 @@ public class MainPage extends StackPane {
     private final VBox editorBox;
     private final StackPane welcomeOverlay;
     private final TopMenuBar menuBar;
+    private final FilterBar filterBar;
     private final Button addEntryButton;
     private final ImageView appIconView;
     private File currentProjectFile = null;
@@ -56,6 +64,7 @@ public class MainPage extends StackPane {
         this.editorBox = new VBox();
         this.welcomeOverlay = new StackPane();
         this.menuBar = new TopMenuBar(this);
+        this.filterBar = new FilterBar(this);
         this.addEntryButton = new Button(getLang("general.button.add_entry"));
         this.appIconView = new ImageView();
 
@@ -81,6 +90,10 @@ public class MainPage extends StackPane {
         return undoManager;
     }
 
+    public ProjectJournal getJournal() {
+        return journal;
+    }
+
     private void setupLayout() {
         VBox mainLayout = new VBox();
         mainLayout.getChildren().addAll(menuBar, editorBox);
@@ -182,7 +195,9 @@ public class MainPage extends StackPane {
         addEntryButton.setOnAction(e -> handleAddEntry());
         VBox.setMargin(addEntryButton, new Insets(0, 8, 8, 8));
 
-        editorBox.getChildren().addAll(translationTreeTable, addEntryButton);
+        VBox.setMargin(filterBar, new Insets(8, 8, 0, 8));
+
+        editorBox.getChildren().addAll(filterBar, translationTreeTable, addEntryButton);
     }
 
     private void setupTreeTableView() {
@@ -190,6 +205,7 @@ public class MainPage extends StackPane {
         translationTreeTable.setShowRoot(false);
         translationTreeTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
         translationTreeTable.setPlaceholder(new Label(getLang("page.main.tree_table.placeholder")));
+        if (PreferencesManager.isFixedRowHeight()) translationTreeTable.setFixedCellSize(FIXED_ROW_HEIGHT);
         VBox.setMargin(translationTreeTable, new Insets(8));
         VBox.setVgrow(translationTreeTable, Priority.ALWAYS);
 
@@ -223,7 +239,7 @@ public class MainPage extends StackPane {
                 ShowAlert.error(getLang("general.alert.error"),
                         getLang("page.main.tree_table.cell.exception.category_edit.header"),
                         getLang("page.main.tree_table.cell.exception.category_edit.content"));
-                SortAndRefresher.refresh(translationTreeTable, groupedData);
+                SortAndRefresher.refresh(translationTreeTable, store);
                 return;
             }
             String oldVal = item.getKey();
@@ -231,7 +247,7 @@ public class MainPage extends StackPane {
             if (!java.util.Objects.equals(oldVal, newVal)) {
                 undoManager.execute(new SetDataItemFieldCommand(
                         getLang("general.datatype.key"),
-                        item::getKey, item::setKey, newVal
+                        item::getKey, journaled(item, "k", value -> store.setKey(item, value)), newVal
                 ));
                 setModified(true);
             }
@@ -246,7 +262,7 @@ public class MainPage extends StackPane {
                 ShowAlert.error(getLang("general.alert.error"),
                         getLang("page.main.tree_table.cell.exception.category_edit.header"),
                         getLang("page.main.tree_table.cell.exception.category_edit.content"));
-                SortAndRefresher.refresh(translationTreeTable, groupedData);
+                SortAndRefresher.refresh(translationTreeTable, store);
                 return;
             }
             String oldVal = item.getOriginalText();
@@ -254,7 +270,7 @@ public class MainPage extends StackPane {
             if (!java.util.Objects.equals(oldVal, newVal)) {
                 undoManager.execute(new SetDataItemFieldCommand(
                         getLang("general.datatype.original_text"),
-                        item::getOriginalText, item::setOriginalText, newVal
+                        item::getOriginalText, journaled(item, "ot", item::setOriginalText), newVal
                 ));
                 setModified(true);
             }
@@ -269,7 +285,7 @@ public class MainPage extends StackPane {
                 ShowAlert.error(getLang("general.alert.error"),
                         getLang("page.main.tree_table.cell.exception.category_edit.header"),
                         getLang("page.main.tree_table.cell.exception.category_edit.content"));
-                SortAndRefresher.refresh(translationTreeTable, groupedData);
+                SortAndRefresher.refresh(translationTreeTable, store);
                 return;
             }
             String oldVal = item.getTranslatedText();
@@ -277,13 +293,29 @@ public class MainPage extends StackPane {
             if (!java.util.Objects.equals(oldVal, newVal)) {
                 undoManager.execute(new SetDataItemFieldCommand(
                         getLang("general.datatype.translated_text"),
-                        item::getTranslatedText, item::setTranslatedText, newVal
+                        item::getTranslatedText, journaled(item, "tt", item::setTranslatedText), newVal
                 ));
                 setModified(true);
             }
         });
     }
 
+    /**
+     * Wraps a field setter so that every applied value, including undo and redo, is recorded in the journal.
+     *
+     * @param item   the DataItem being edited
+     * @param field  the journal field name ("k", "ot" or "tt")
+     * @param setter the setter to wrap
+     * @return the journaling setter
+     */
+    private java.util.function.Consumer<String> journaled(DataItem item, String field, java.util.function.Consumer<String> setter) {
+        return value -> {
+            String key = item.getKey();
+            setter.accept(value);
+            journal.recordSet(key, field, value);
+        };
+    }
+
     private void setupContextMenu() {
         translationTreeTable.setRowFactory(tv -> {
             TreeTableRow<DataItem> row = new TreeTableRow<>();
@@ -306,7 +338,7 @@ public class MainPage extends StackPane {
             translationTreeTable.getContextMenu().hide();
         }
         ContextMenu menu = new ContextMenu();
-        menu.initialize(groupedData, translationTreeTable, targetItem);
+        menu.initialize(store, translationTreeTable, targetItem);
         translationTreeTable.setContextMenu(menu);
         menu.show(owner, x, y);
     }
@@ -322,7 +354,7 @@ public class MainPage extends StackPane {
     private void handleCellEdit(String newValue, java.util.function.Supplier<String> forbiddenValueGetter, java.util.function.Predicate<String> forbidPredicate, java.util.function.Consumer<String> valueSetter) {
         if (forbidPredicate.test(forbiddenValueGetter.get())) {
             ShowAlert.error(getLang("general.alert.error"), getLang("page.main.tree_table.cell.exception.category_edit.header"), getLang("page.main.tree_table.cell.exception.category_edit.content"));
-            SortAndRefresher.refresh(translationTreeTable, groupedData);
+            SortAndRefresher.refresh(translationTreeTable, store);
             return;
         }
         valueSetter.accept(newValue);
@@ -330,8 +362,7 @@ public class MainPage extends StackPane {
     }
 
     private void handleAddEntry() {
-        DataOperationHelper.addEntry(groupedData);
-        SortAndRefresher.refresh(translationTreeTable, groupedData);
+        DataOperationHelper.addEntry(store);
         setModified(true);
     }
 
@@ -360,7 +391,18 @@ public class MainPage extends StackPane {
         editorBox.setVisible(true);
         editorBox.setManaged(true);
         updateWindowTitle();
-        SortAndRefresher.refresh(translationTreeTable, groupedData);
+        SortAndRefresher.refresh(translationTreeTable, store);
+    }
+
+    /**
+     * Switch between rows that grow with multi-line texts and rows of one fixed height showing a one-line preview.
+     * Fixed heights spare the table from measuring rows while scrolling.
+     *
+     * @param fixed true for rows of a fixed height
+     */
+    public void setFixedRowHeight(boolean fixed) {
+        translationTreeTable.setFixedCellSize(fixed ? FIXED_ROW_HEIGHT : Region.USE_COMPUTED_SIZE);
+        translationTreeTable.refresh();
     }
 
     private void updateWindowTitle() {
@@ -374,8 +416,8 @@ public class MainPage extends StackPane {
         return this;
     }
 
-    public Map<String, List<DataItem>> getGroupedData() {
-        return groupedData;
+    public TranslationStore getStore() {
+        return store;
     }
 
     public TreeTableView<DataItem> getDataTreeTable() {
@@ -451,11 +493,23 @@ public class MainPage extends StackPane {
             }
         });
 
+        SortEngine.addModeChangeListener(() -> {
+            logger.debug("Sort mode changed, refreshing view");
+            SortAndRefresher.refresh(translationTreeTable, store);
+        });
+
         setOnKeyPressed(event -> {
             switch (event.getCode()) {
                 case F5 -> {
                     logger.debug("F5 pressed, refreshing view");
-                    SortAndRefresher.refresh(translationTreeTable, groupedData);
+                    SortAndRefresher.refresh(translationTreeTable, store);
+                }
+                case F -> {
+                    if (event.isControlDown()) {
+                        logger.debug("Ctrl+F pressed, focusing filter");
+                        filterBar.focus();
+                        event.consume();
+                    }
                 }
                 case S -> {
                     if (event.isControlDown()) {
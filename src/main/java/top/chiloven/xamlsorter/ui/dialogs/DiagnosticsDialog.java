@@ -0,0 +1,196 @@
+package top.chiloven.xamlsorter.ui.dialogs;
+
+import top.chiloven.xamlsorter.entities.EntryTable;
+import top.chiloven.xamlsorter.modules.I18n;
+import top.chiloven.xamlsorter.ui.MainPage;
+import top.chiloven.xamlsorter.utils.ShowAlert;
+import top.chiloven.xamlsorter.utils.StringPool;
+import top.chiloven.xamlsorter.utils.TaskExecutorService;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
+import javafx.stage.Modality;
+import javafx.stage.Window;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+
+import static top.chiloven.xamlsorter.modules.I18n.getLang;
+
+public class DiagnosticsDialog extends Dialog<Void> {
+    private static final Logger logger = LogManager.getLogger(DiagnosticsDialog.class);
+
+    private final GridPane grid = new GridPane();
+
+    public DiagnosticsDialog(MainPage mainPage, Window owner) {
+        try {
+            setupDialog(owner);
+            computeMemoryUsage(mainPage);
+        } catch (Exception e) {
+            logger.error("Failed to create Diagnostics dialog", e);
+            ShowAlert.error(
+                    getLang("general.alert.error"),
+                    getLang("dialog.diagnostics.exception.alert.header"),
+                    getLang("dialog.diagnostics.exception.alert.content"),
+                    e
+            );
+        }
+    }
+
+    /**
+     * Show the Diagnostics dialog
+     *
+     * @param mainPage the MainPage whose project should be inspected
+     */
+    public static void show(MainPage mainPage) {
+        logger.info("Opening Diagnostics dialog");
+        try {
+            DiagnosticsDialog dialog = new DiagnosticsDialog(mainPage, mainPage.getRootPane().getScene().getWindow());
+            dialog.showAndWait();
+            logger.debug("Diagnostics dialog closed");
+        } catch (Exception e) {
+            logger.error("Failed to show Diagnostics dialog", e);
+            ShowAlert.error(
+                    getLang("general.alert.error"),
+                    getLang("dialog.diagnostics.exception.alert.header"),
+                    getLang("dialog.diagnostics.exception.alert.content"),
+                    e
+            );
+        }
+    }
+
+    /**
+     * Format a byte count for display.
+     *
+     * @param bytes the byte count
+     * @return the formatted size, e.g. "1.5 MiB"
+     */
+    private static String formatBytes(long bytes) {
+        // The net saving is negative when the pool costs more than it shares
+        if (Math.abs(bytes) < 1024) return bytes + " B";
+        if (Math.abs(bytes) < 1024 * 1024) return "%.1f KiB".formatted(bytes / 1024.0);
+        return "%.1f MiB".formatted(bytes / (1024.0 * 1024.0));
+    }
+
+    private void setupDialog(Window owner) {
+        setTitle(getLang("dialog.diagnostics.title"));
+        initModality(Modality.WINDOW_MODAL);
+        initOwner(owner);
+
+        grid.setHgap(24);
+        grid.setVgap(8);
+        grid.setPadding(new Insets(20.0));
+        grid.add(new Label(getLang("dialog.diagnostics.computing")), 0, 0, 2, 1);
+
+        ButtonType closeButton = new ButtonType(getLang("general.button.close"),
+                ButtonBar.ButtonData.CANCEL_CLOSE);
+        getDialogPane().getButtonTypes().add(closeButton);
+        getDialogPane().setContent(grid);
+
+        Scene scene = getDialogPane().getScene();
+        I18n.applyDefaultFont(scene);
+
+        logger.debug("Diagnostics dialog initialized");
+    }
+
+    /**
+     * Measure how much memory the project's strings take and how much the string pool saves.
+     * This method processes data in a background thread and updates the UI in the JavaFX application thread.
+     *
+     * @param mainPage the MainPage whose project should be inspected
+     */
+    private void computeMemoryUsage(MainPage mainPage) {
+        EntryTable.Snapshot table = mainPage.getStore().snapshot();
+
+        TaskExecutorService.executeTask(
+                "MemoryDiagnostics",
+                () -> {
+                    Set<String> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+                    Set<String> values = new HashSet<>();
+                    long references = 0;
+                    long unsharedBytes = 0;
+                    long actualBytes = 0;
+
+                    int[] rows = table.rows().toArray();
+                    // Off-heap texts are not heap strings; decoding them here would only measure temporary copies
+                    int lastColumn = table.isTextOffHeap() ? EntryTable.KEY : EntryTable.TRANSLATED_TEXT;
+                    for (int row : rows) {
+                        for (int column = EntryTable.CATEGORY; column <= lastColumn; column++) {
+                            String s = table.get(row, column);
+                            if (s == null) continue;
+                            long size = StringPool.estimateSize(s);
+                            references++;
+                            unsharedBytes += size;
+                            if (instances.add(s)) actualBytes += size;
+                            values.add(s);
+                        }
+                    }
+                    return new MemoryUsage(rows.length, references, instances.size(), values.size(), unsharedBytes, actualBytes,
+                            table.getOffHeapUsage());
+                },
+                this::showMemoryUsage,
+                error -> {
+                    logger.error("Failed to compute memory diagnostics", error);
+                    Exception exception = (error instanceof Exception) ? (Exception) error : new Exception(error);
+                    ShowAlert.error(
+                            getLang("general.alert.error"),
+                            getLang("dialog.diagnostics.exception.alert.header"),
+                            getLang("dialog.diagnostics.exception.alert.content"),
+                            exception
+                    );
+                }
+        );
+    }
+
+    private void showMemoryUsage(MemoryUsage usage) {
+        StringPool.Stats pool = StringPool.stats();
+        // Net of what the pool costs, which exceeds the gross saving when most texts are unique
+        long overhead = StringPool.estimateOverhead(pool.entries());
+        long saved = usage.unsharedBytes() - usage.actualBytes() - overhead;
+        double savedPercent = usage.unsharedBytes() > 0 ? saved * 100.0 / usage.unsharedBytes() : 0;
+        double hitRate = pool.lookups() > 0 ? pool.hits() * 100.0 / pool.lookups() : 0;
+
+        grid.getChildren().clear();
+        String[][] rows = {
+                {getLang("dialog.diagnostics.entries"), String.valueOf(usage.entries())},
+                {getLang("dialog.diagnostics.references"), String.valueOf(usage.references())},
+                {getLang("dialog.diagnostics.instances"), String.valueOf(usage.instances())},
+                {getLang("dialog.diagnostics.distinct"), String.valueOf(usage.distinctValues())},
+                {getLang("dialog.diagnostics.unshared"), formatBytes(usage.unsharedBytes())},
+                {getLang("dialog.diagnostics.actual"), formatBytes(usage.actualBytes())},
+                {getLang("dialog.diagnostics.pool.overhead"), formatBytes(overhead)},
+                {getLang("dialog.diagnostics.saved"), "%s (%.1f%%)".formatted(formatBytes(saved), savedPercent)},
+                {getLang("dialog.diagnostics.pool.entries"), String.valueOf(pool.entries())},
+                {getLang("dialog.diagnostics.pool.hit_rate"), "%.1f%% (%d / %d)".formatted(hitRate, pool.hits(), pool.lookups())},
+                {getLang("dialog.diagnostics.offheap"), usage.offHeap() != null
+                        ? getLang("dialog.diagnostics.offheap.value",
+                        formatBytes(usage.offHeap().usedBytes()), formatBytes(usage.offHeap().garbageBytes()))
+                        : getLang("dialog.diagnostics.offheap.disabled")}
+        };
+        for (int i = 0; i < rows.length; i++) {
+            grid.add(new Label(rows[i][0]), 0, i);
+            grid.add(new Label(rows[i][1]), 1, i);
+        }
+        Window window = getDialogPane().getScene().getWindow();
+        if (window != null) window.sizeToScene();
+
+        logger.info("Memory diagnostics: {} entries, {} saved by string sharing", usage.entries(), formatBytes(saved));
+    }
+
+    /**
+     * String memory usage of the project.
+     *
+     * @param entries        the number of entries
+     * @param references     the number of string fields
+     * @param instances      the number of distinct String objects
+     * @param distinctValues the number of distinct string values
+     * @param unsharedBytes  the estimated size if every field held its own String
+     * @param actualBytes    the estimated size of the distinct String objects
+     * @param offHeap        the off-heap text usage, or null if texts are on the heap
+     */
+    private record MemoryUsage(int entries, long references, int instances, int distinctValues,
+                               long unsharedBytes, long actualBytes, EntryTable.OffHeapUsage offHeap) {
+    }
+}
@@ -1,8 +1,8 @@
 package top.chiloven.xamlsorter.ui.dialogs;
 
-import top.chiloven.xamlsorter.entities.DataItem;
 import top.chiloven.xamlsorter.modules.FileProcessor;
 import top.chiloven.xamlsorter.modules.I18n;
+import top.chiloven.xamlsorter.modules.TranslationStore;
 import top.chiloven.xamlsorter.ui.MainPage;
 import top.chiloven.xamlsorter.utils.CustomFileChooser;
 import top.chiloven.xamlsorter.utils.ShowAlert;
@@ -18,7 +18,6 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.util.List;
-import java.util.Map;
 
 import static top.chiloven.xamlsorter.modules.I18n.getLang;
 
@@ -28,12 +27,12 @@ public class ExportDialog extends Dialog<Void> {
     private final ChoiceBox<String> fileTypeChoiceBox = new ChoiceBox<>();
     private final ChoiceBox<String> fieldChoiceBox = new ChoiceBox<>();
     private final CheckBox commentCheckBox = new CheckBox();
-    private final Map<String, List<DataItem>> groupedData;
+    private final TranslationStore store;
     private final MainPage mainPage;
 
     public ExportDialog(MainPage mainPage) {
         this.mainPage = mainPage;
-        this.groupedData = mainPage.getGroupedData();
+        this.store = mainPage.getStore();
 
         try {
             setupDialog();
@@ -176,7 +175,7 @@ public class ExportDialog extends Dialog<Void> {
 
         if (file != null) {
             logger.info("Exporting to file: {}", file.getAbsolutePath());
-            FileProcessor.exportToFile(file, fileType, fieldToExport, addComments, groupedData);
+            FileProcessor.exportToFile(file, fileType, fieldToExport, addComments, store);
             close();
         } else {
             logger.info("Export cancelled or no file selected");
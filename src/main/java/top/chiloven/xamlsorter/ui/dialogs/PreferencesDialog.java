@@ -3,7 +3,9 @@ package top.chiloven.xamlsorter.ui.dialogs;
 import top.chiloven.xamlsorter.Main;
 import top.chiloven.xamlsorter.modules.I18n;
 import top.chiloven.xamlsorter.modules.PreferencesManager;
+import top.chiloven.xamlsorter.modules.SortEngine;
 import top.chiloven.xamlsorter.modules.preferences.Language;
+import top.chiloven.xamlsorter.modules.preferences.SortMode;
 import top.chiloven.xamlsorter.modules.preferences.ThemeMode;
 import top.chiloven.xamlsorter.utils.ShowAlert;
 import javafx.geometry.Insets;
@@ -27,10 +29,12 @@ public class PreferencesDialog extends Dialog<ButtonType> {
 
     private final ComboBox<String> languageComboBox;
     private final ComboBox<String> themeComboBox;
+    private final ComboBox<String> sortComboBox;
 
     public PreferencesDialog(Window owner) {
         this.languageComboBox = new ComboBox<>();
         this.themeComboBox = new ComboBox<>();
+        this.sortComboBox = new ComboBox<>();
 
         try {
             setupDialog(owner);
@@ -76,7 +80,7 @@ public class PreferencesDialog extends Dialog<ButtonType> {
         // 创建主容器
         VBox content = new VBox(14);
         content.setAlignment(Pos.CENTER_LEFT);
-        content.setPrefHeight(115.0);
+        content.setPrefHeight(150.0);
         content.setPrefWidth(268.0);
 
         // 创建标题标签
@@ -107,8 +111,20 @@ public class PreferencesDialog extends Dialog<ButtonType> {
         );
         themeBox.getChildren().addAll(themeLabel, themeComboBox);
 
+        // 创建排序方式选择区域
+        HBox sortBox = new HBox(10);
+        Label sortLabel = new Label(getLang("dialog.pref.sort.label"));
+        sortComboBox.setPrefHeight(23.0);
+        sortComboBox.setPrefWidth(200.0);
+        sortComboBox.getItems().addAll(
+                getLang("dialog.pref.sort.ordinal"),
+                getLang("dialog.pref.sort.natural"),
+                getLang("dialog.pref.sort.collation")
+        );
+        sortBox.getChildren().addAll(sortLabel, sortComboBox);
+
         // 组装内容
-        content.getChildren().addAll(titleLabel, languageBox, themeBox);
+        content.getChildren().addAll(titleLabel, languageBox, themeBox, sortBox);
         content.setPadding(new Insets(10));
 
         // 创建对话框按钮
@@ -139,6 +155,13 @@ public class PreferencesDialog extends Dialog<ButtonType> {
             case LIGHT -> themeComboBox.setValue(getLang("dialog.pref.theme.light"));
             case DARK -> themeComboBox.setValue(getLang("dialog.pref.theme.dark"));
         }
+
+        // 设置当前排序方式
+        switch (SortEngine.getMode()) {
+            case ORDINAL -> sortComboBox.setValue(getLang("dialog.pref.sort.ordinal"));
+            case NATURAL -> sortComboBox.setValue(getLang("dialog.pref.sort.natural"));
+            case COLLATION -> sortComboBox.setValue(getLang("dialog.pref.sort.collation"));
+        }
     }
 
     private void savePreferences() {
@@ -169,6 +192,9 @@ public class PreferencesDialog extends Dialog<ButtonType> {
         if (themeChanged) {
             handleThemeChange(oldTheme, newTheme);
         }
+
+        // Refreshes views that depend on the order through the mode listeners
+        SortEngine.setMode(getSelectedSortMode());
     }
 
     private void handleLanguageChange(Language oldLang, Language newLang) {
@@ -195,6 +221,17 @@ public class PreferencesDialog extends Dialog<ButtonType> {
         Main.applyTheme();
     }
 
+    private SortMode getSelectedSortMode() {
+        String selected = sortComboBox.getValue();
+        if (selected.equals(getLang("dialog.pref.sort.natural"))) {
+            return SortMode.NATURAL;
+        } else if (selected.equals(getLang("dialog.pref.sort.collation"))) {
+            return SortMode.COLLATION;
+        } else {
+            return SortMode.ORDINAL;
+        }
+    }
+
     private ThemeMode getSelectedThemeMode() {
         String selected = themeComboBox.getValue();
         if (selected.equals(getLang("dialog.pref.theme.system"))) {
@@ -1,9 +1,9 @@
 package top.chiloven.xamlsorter.ui.dialogs;
 
 import top.chiloven.xamlsorter.entities.DataItem;
-import top.chiloven.xamlsorter.modules.DataOperationHelper;
 import top.chiloven.xamlsorter.modules.I18n;
 import top.chiloven.xamlsorter.modules.SortAndRefresher;
+import top.chiloven.xamlsorter.modules.TranslationStore;
 import top.chiloven.xamlsorter.ui.MainPage;
 import top.chiloven.xamlsorter.utils.ShowAlert;
 import javafx.geometry.Insets;
@@ -19,7 +19,6 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.*;
 import java.util.function.BiConsumer;
-import java.util.stream.Collectors;
 
 import static top.chiloven.xamlsorter.modules.I18n.getLang;
 
@@ -36,12 +35,12 @@ public class RegExEditDialog extends Dialog<ButtonType> {
     private final TreeTableColumn<DataItem, String> originalTextColumn;
     private final TreeTableColumn<DataItem, String> translatedTextColumn;
 
-    private final Map<String, List<DataItem>> groupedData;
+    private final TranslationStore store;
     private final String targetCategory;
 
-    public RegExEditDialog(MainPage mainPage, Map<String, List<DataItem>> groupedData, String targetCategory) {
+    public RegExEditDialog(MainPage mainPage, TranslationStore store, String targetCategory) {
         this.mainPage = mainPage;
-        this.groupedData = groupedData;
+        this.store = store;
         this.targetCategory = targetCategory;
 
         // 初始化组件
@@ -69,10 +68,10 @@ public class RegExEditDialog extends Dialog<ButtonType> {
         }
     }
 
-    public static void show(MainPage mainPage, Map<String, List<DataItem>> groupedData, String targetCategory) {
+    public static void show(MainPage mainPage, TranslationStore store, String targetCategory) {
         logger.info("Opening Regex Edit dialog");
         try {
-            RegExEditDialog dialog = new RegExEditDialog(mainPage, groupedData, targetCategory);
+            RegExEditDialog dialog = new RegExEditDialog(mainPage, store, targetCategory);
             dialog.showAndWait().ifPresent(buttonType -> {
                 if (buttonType.getButtonData() == ButtonBar.ButtonData.APPLY) {
                     logger.info("User applied changes in Regex Edit dialog");
@@ -248,13 +247,17 @@ public class RegExEditDialog extends Dialog<ButtonType> {
         logger.debug("Applying changes with pattern: {}, replacement: {}, scope: {}, target: {}",
                 pattern, replacement, scope, replaceTarget);
 
-        processGroupedData(pattern, replacement, scope, replaceTarget, false);
-
-        logger.debug("Regrouping grouped data after applying regex changes");
-        regroupGroupedData();
+        // One batch, so snapshots taken by a concurrent save never see half of the replacements
+        // and bound cells are notified once instead of once per replacement
+        store.bulkUpdate(() -> {
+            processGroupedData(pattern, replacement, scope, replaceTarget, false);
+            logger.debug("Regrouping grouped data after applying regex changes");
+            regroupGroupedData();
+        });
+        mainPage.getJournal().requireFullSave();
 
         logger.debug("Refreshing main data tree table after changes");
-        SortAndRefresher.refresh(mainPage.getDataTreeTable(), mainPage.getGroupedData());
+        SortAndRefresher.refresh(mainPage.getDataTreeTable(), store);
 
         logger.info("Changes applied with pattern: {}, replacement: {}, scope: {}, target: {}",
                 pattern, replacement, scope, replaceTarget);
@@ -301,13 +304,13 @@ public class RegExEditDialog extends Dialog<ButtonType> {
 
         if (getLang("dialog.regex.scope.current").equals(scope) && targetCategory != null) {
             logger.debug("Applying regex to current group: {}", targetCategory);
-            List<DataItem> source = groupedData.getOrDefault(targetCategory, Collections.emptyList());
+            List<DataItem> source = store.getCategory(targetCategory);
             List<DataItem> updated = new ArrayList<>();
             for (DataItem item : source) applier.accept(item, updated);
             result.put(targetCategory, updated);
         } else {
             logger.debug("Applying regex to all groups");
-            for (Map.Entry<String, List<DataItem>> entry : groupedData.entrySet()) {
+            for (Map.Entry<String, List<DataItem>> entry : store.asGroupedMap().entrySet()) {
                 List<DataItem> updated = new ArrayList<>();
                 for (DataItem item : entry.getValue()) applier.accept(item, updated);
                 result.put(entry.getKey(), updated);
@@ -337,12 +340,9 @@ public class RegExEditDialog extends Dialog<ButtonType> {
         }
     }
 
-    // Regroup the data after applying changes
+    // Regroup the data after applying changes; keys may have changed, so categories are derived again
     private void regroupGroupedData() {
-        List<DataItem> all = groupedData.values().stream().flatMap(List::stream).collect(Collectors.toList());
-        Map<String, List<DataItem>> regrouped = DataOperationHelper.groupByCategory(all);
-        groupedData.clear();
-        groupedData.putAll(regrouped);
+        store.regroup();
     }
 
 }
\ No newline at end of file
@@ -4,15 +4,13 @@ import top.chiloven.xamlsorter.entities.DataItem;
 import top.chiloven.xamlsorter.modules.ClipboardManager;
 import top.chiloven.xamlsorter.modules.DataOperationHelper;
 import top.chiloven.xamlsorter.modules.SortAndRefresher;
+import top.chiloven.xamlsorter.modules.TranslationStore;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.control.TreeTableView;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.List;
-import java.util.Map;
-
 import static top.chiloven.xamlsorter.modules.I18n.getLang;
 
 public class ContextMenu extends javafx.scene.control.ContextMenu {
@@ -25,9 +23,11 @@ public class ContextMenu extends javafx.scene.control.ContextMenu {
     private final MenuItem addEntry;
     private final MenuItem selectAll;
     private final MenuItem unselectAll;
+    private final MenuItem renameGroup;
 
-    private Map<String, List<DataItem>> groupedData;
+    private TranslationStore store;
     private TreeTableView<DataItem> translationTreeTable;
+    private String groupPrefix;
 
     public ContextMenu() {
         // 创建菜单项
@@ -38,6 +38,7 @@ public class ContextMenu extends javafx.scene.control.ContextMenu {
         addEntry = new MenuItem(getLang("general.button.add_entry"));
         selectAll = new MenuItem(getLang("widget.context_menu.select_all"));
         unselectAll = new MenuItem(getLang("widget.context_menu.unselect_all"));
+        renameGroup = new MenuItem(getLang("widget.context_menu.rename_group"));
 
         // 设置事件处理
         copyEntry.setOnAction(event -> handleCopy());
@@ -47,6 +48,7 @@ public class ContextMenu extends javafx.scene.control.ContextMenu {
         addEntry.setOnAction(event -> handleAdd());
         selectAll.setOnAction(event -> handleSelectAll());
         unselectAll.setOnAction(event -> handleUnselectAll());
+        renameGroup.setOnAction(event -> handleRenameGroup());
 
         // 组装菜单
         getItems().addAll(
@@ -58,17 +60,19 @@ public class ContextMenu extends javafx.scene.control.ContextMenu {
                 addEntry,
                 new SeparatorMenuItem(),
                 selectAll,
-                unselectAll
+                unselectAll,
+                new SeparatorMenuItem(),
+                renameGroup
         );
 
         logger.debug("Context menu created");
     }
 
-    public void initialize(Map<String, List<DataItem>> groupedData,
+    public void initialize(TranslationStore store,
                            TreeTableView<DataItem> translationTreeTable,
                            DataItem targetItem) {
         logger.info("Initializing context menu...");
-        this.groupedData = groupedData;
+        this.store = store;
         this.translationTreeTable = translationTreeTable;
 
         boolean hasTarget = targetItem != null;
@@ -82,8 +86,13 @@ public class ContextMenu extends javafx.scene.control.ContextMenu {
         deleteEntry.setDisable(!hasTarget);
         pasteEntry.setDisable(!hasClipboard);
 
-        logger.debug("Context menu initialized with grouped data size: {}, target item: {}, clipboard has content: {}",
-                groupedData.size(), hasTarget, hasClipboard);
+        // Group rows carry the key prefix of their entries followed by "..."
+        String key = hasTarget ? targetItem.getKey() : null;
+        groupPrefix = key != null && key.endsWith("...") ? key.substring(0, key.length() - 3) : null;
+        renameGroup.setDisable(groupPrefix == null || store.countWithPrefix(groupPrefix) == 0);
+
+        logger.debug("Context menu initialized with store size: {}, target item: {}, clipboard has content: {}",
+                store.size(), hasTarget, hasClipboard);
     }
 
     private void handleCopy() {
@@ -91,20 +100,24 @@ public class ContextMenu extends javafx.scene.control.ContextMenu {
     }
 
     private void handlePaste() {
-        DataOperationHelper.paste(translationTreeTable, groupedData);
+        DataOperationHelper.paste(translationTreeTable, store);
     }
 
     private void handleCut() {
-        DataOperationHelper.cut(translationTreeTable, groupedData);
+        DataOperationHelper.cut(translationTreeTable, store);
     }
 
     private void handleDelete() {
-        DataOperationHelper.delete(translationTreeTable, groupedData);
+        DataOperationHelper.delete(translationTreeTable, store);
     }
 
     private void handleAdd() {
-        DataOperationHelper.addEntry(groupedData);
-        SortAndRefresher.refresh(translationTreeTable, groupedData);
+        DataOperationHelper.addEntry(store);
+        SortAndRefresher.refresh(translationTreeTable, store);
+    }
+
+    private void handleRenameGroup() {
+        if (groupPrefix != null) DataOperationHelper.renamePrefix(translationTreeTable, store, groupPrefix);
     }
 
     private void handleSelectAll() {
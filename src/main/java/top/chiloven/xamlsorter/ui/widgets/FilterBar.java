@@ -0,0 +1,91 @@
+package top.chiloven.xamlsorter.ui.widgets;
+
+import top.chiloven.xamlsorter.modules.SearchIndex;
+import top.chiloven.xamlsorter.modules.SortAndRefresher;
+import top.chiloven.xamlsorter.ui.MainPage;
+import top.chiloven.xamlsorter.utils.TaskExecutorService;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static top.chiloven.xamlsorter.modules.I18n.getLang;
+
+/**
+ * A text field above the translation table that filters it as the user types.
+ * Every keystroke starts a query against a {@link SearchIndex} in a background thread and cancels the previous one;
+ * only the result of the latest query is shown. The query runs again whenever the index was updated
+ * after the project's entries changed.
+ */
+public class FilterBar extends HBox {
+    private static final Logger logger = LogManager.getLogger(FilterBar.class);
+
+    private final MainPage mainPage;
+    private final SearchIndex index;
+    private final TextField queryField;
+    private final Label matchesLabel;
+    private final AtomicLong latestQuery = new AtomicLong();
+
+    public FilterBar(MainPage mainPage) {
+        this.mainPage = mainPage;
+        this.index = new SearchIndex(mainPage.getStore());
+        this.queryField = new TextField();
+        this.matchesLabel = new Label();
+
+        queryField.setPromptText(getLang("widget.filter_bar.prompt"));
+        HBox.setHgrow(queryField, Priority.ALWAYS);
+        setSpacing(8);
+        setAlignment(Pos.CENTER_LEFT);
+        getChildren().addAll(queryField, matchesLabel);
+
+        queryField.textProperty().addListener((observable, oldValue, newValue) -> runQuery());
+        queryField.setOnKeyPressed(event -> {
+            if (event.getCode() == KeyCode.ESCAPE) {
+                queryField.clear();
+                event.consume();
+            }
+        });
+        index.addUpdateListener(() -> {
+            if (!queryField.getText().isBlank()) runQuery();
+        });
+    }
+
+    /**
+     * Move the keyboard focus to the filter field and select its text.
+     */
+    public void focus() {
+        queryField.requestFocus();
+        queryField.selectAll();
+    }
+
+    private void runQuery() {
+        long id = latestQuery.incrementAndGet();
+        String query = queryField.getText().trim();
+
+        if (query.isEmpty()) {
+            matchesLabel.setText("");
+            SortAndRefresher.setFilter(mainPage.getDataTreeTable(), mainPage.getStore(), null);
+            logger.debug("Filter cleared");
+            return;
+        }
+
+        TaskExecutorService.executeTask(
+                "Filter",
+                () -> index.query(query, () -> latestQuery.get() != id),
+                rows -> {
+                    // A newer query was started meanwhile; its result replaces this one
+                    if (rows == null || latestQuery.get() != id) return;
+                    matchesLabel.setText(getLang("widget.filter_bar.matches", rows.cardinality()));
+                    SortAndRefresher.setFilter(mainPage.getDataTreeTable(), mainPage.getStore(), rows);
+                    logger.debug("Filter '{}' shows {} entries", query, rows.cardinality());
+                },
+                error -> logger.error("Error filtering entries with query: {}", query, error)
+        );
+    }
+}
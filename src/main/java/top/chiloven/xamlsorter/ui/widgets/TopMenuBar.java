@@ -1,15 +1,20 @@
 package top.chiloven.xamlsorter.ui.widgets;
 
+import top.chiloven.xamlsorter.entities.DataItem;
 import top.chiloven.xamlsorter.modules.DataOperationHelper;
+import top.chiloven.xamlsorter.modules.PreferencesManager;
 import top.chiloven.xamlsorter.modules.ProjectManager;
+import top.chiloven.xamlsorter.modules.SortAndRefresher;
 import top.chiloven.xamlsorter.ui.MainPage;
 import top.chiloven.xamlsorter.ui.dialogs.*;
 import top.chiloven.xamlsorter.utils.BrowserUtil;
 import top.chiloven.xamlsorter.utils.ShowAlert;
+import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuBar;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.SeparatorMenuItem;
+import javafx.scene.control.TreeItem;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyCodeCombination;
 import javafx.scene.input.KeyCombination;
@@ -110,19 +115,19 @@ public class TopMenuBar extends MenuBar {
                 KeyCode.Y, KeyCodeCombination.CONTROL_DOWN));
 
         MenuItem cut = new MenuItem(getLang("widget.context_menu.cut"));
-        cut.setOnAction(e -> DataOperationHelper.cut(mainPage.getDataTreeTable(), mainPage.getGroupedData()));
+        cut.setOnAction(e -> DataOperationHelper.cut(mainPage.getDataTreeTable(), mainPage.getStore()));
 
         MenuItem copy = new MenuItem(getLang("widget.context_menu.copy"));
         copy.setOnAction(e -> DataOperationHelper.copy(mainPage.getDataTreeTable()));
 
         MenuItem paste = new MenuItem(getLang("widget.context_menu.paste"));
-        paste.setOnAction(e -> DataOperationHelper.paste(mainPage.getDataTreeTable(), mainPage.getGroupedData()));
+        paste.setOnAction(e -> DataOperationHelper.paste(mainPage.getDataTreeTable(), mainPage.getStore()));
 
         MenuItem delete = new MenuItem(getLang("widget.context_menu.delete"));
-        delete.setOnAction(e -> DataOperationHelper.delete(mainPage.getDataTreeTable(), mainPage.getGroupedData()));
+        delete.setOnAction(e -> DataOperationHelper.delete(mainPage.getDataTreeTable(), mainPage.getStore()));
 
         MenuItem add = new MenuItem(getLang("general.button.add_entry"));
-        add.setOnAction(e -> DataOperationHelper.addEntry(mainPage.getGroupedData()));
+        add.setOnAction(e -> DataOperationHelper.addEntry(mainPage.getStore()));
 
         MenuItem selectAll = new MenuItem(getLang("widget.context_menu.select_all"));
         selectAll.setOnAction(e -> DataOperationHelper.selectAll(mainPage.getDataTreeTable()));
@@ -161,9 +166,36 @@ public class TopMenuBar extends MenuBar {
         Menu menu = new Menu(getLang("widget.menu_bar.tools"));
 
         MenuItem regexEdit = new MenuItem(getLang("widget.menu_bar.tools.regex"));
-        regexEdit.setOnAction(e -> RegExEditDialog.show(mainPage, mainPage.getGroupedData(), null));
-
-        menu.getItems().add(regexEdit);
+        regexEdit.setOnAction(e -> RegExEditDialog.show(mainPage, mainPage.getStore(), null));
+
+        MenuItem diagnostics = new MenuItem(getLang("widget.menu_bar.tools.diagnostics"));
+        diagnostics.setOnAction(e -> DiagnosticsDialog.show(mainPage));
+
+        CheckMenuItem nestedKeys = new CheckMenuItem(getLang("widget.menu_bar.tools.nested_keys"));
+        nestedKeys.setSelected(PreferencesManager.isNestedKeysEnabled());
+        nestedKeys.setOnAction(e -> {
+            PreferencesManager.setNestedKeysEnabled(nestedKeys.isSelected());
+            SortAndRefresher.refresh(mainPage.getDataTreeTable(), mainPage.getStore());
+        });
+
+        CheckMenuItem collapseCategories = new CheckMenuItem(getLang("widget.menu_bar.tools.collapse_categories"));
+        collapseCategories.setSelected(PreferencesManager.isCategoriesCollapsed());
+        collapseCategories.setOnAction(e -> {
+            PreferencesManager.setCategoriesCollapsed(collapseCategories.isSelected());
+            TreeItem<DataItem> root = mainPage.getDataTreeTable().getRoot();
+            if (root != null) {
+                root.getChildren().forEach(category -> category.setExpanded(!collapseCategories.isSelected()));
+            }
+        });
+
+        CheckMenuItem fixedRowHeight = new CheckMenuItem(getLang("widget.menu_bar.tools.fixed_row_height"));
+        fixedRowHeight.setSelected(PreferencesManager.isFixedRowHeight());
+        fixedRowHeight.setOnAction(e -> {
+            PreferencesManager.setFixedRowHeight(fixedRowHeight.isSelected());
+            mainPage.setFixedRowHeight(fixedRowHeight.isSelected());
+        });
+
+        menu.getItems().addAll(regexEdit, nestedKeys, collapseCategories, fixedRowHeight, new SeparatorMenuItem(), diagnostics);
 
         return menu;
     }
@@ -7,6 +7,8 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 public class CustomFileChooser {
     private static final Logger logger = LogManager.getLogger(CustomFileChooser.class);
@@ -75,4 +77,61 @@ public class CustomFileChooser {
         return selectedFile;
     }
 
+    /**
+     * Open a file save dialog offering several file types.
+     * The selected type decides the extension: if the entered name does not end with one of its extensions,
+     * an extension of another offered type is replaced by the first extension of the selected type,
+     * and any other name gets it appended.
+     *
+     * @param owner           the owner window of the dialog
+     * @param title           the title of the dialog
+     * @param filters         the file type descriptions mapped to their extensions, in display order
+     * @param defaultFileName the default file name to be suggested in the dialog
+     * @return the selected file, or null if no file was selected
+     */
+    public static File showSaveFileDialog(Window owner, String title, Map<String, List<String>> filters, String defaultFileName) {
+        logger.info("Opening save file dialog with title: {}, filters: {}, defaultFileName: {}", title, filters, defaultFileName);
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(title);
+
+        filters.forEach((files, extensions) -> fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(
+                files, extensions.stream().map(ext -> "*." + ext).toArray(String[]::new)
+        )));
+
+        if (defaultFileName != null && !defaultFileName.isEmpty()) {
+            fileChooser.setInitialFileName(defaultFileName);
+        }
+
+        File selectedFile = fileChooser.showSaveDialog(owner);
+        if (selectedFile == null) {
+            logger.info("No file selected for saving.");
+            return null;
+        }
+
+        FileChooser.ExtensionFilter selectedFilter = fileChooser.getSelectedExtensionFilter();
+        if (selectedFilter != null) {
+            selectedFile = withExtension(selectedFile, selectedFilter, filters);
+        }
+        logger.info("File to save selected: {}", selectedFile.getAbsolutePath());
+        return selectedFile;
+    }
+
+    private static File withExtension(File file, FileChooser.ExtensionFilter selectedFilter, Map<String, List<String>> filters) {
+        String name = file.getName();
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        // Filter extensions have the form "*.ext"
+        for (String pattern : selectedFilter.getExtensions()) {
+            if (lowerName.endsWith(pattern.substring(1).toLowerCase(Locale.ROOT))) return file;
+        }
+
+        String base = name;
+        for (List<String> extensions : filters.values()) {
+            for (String ext : extensions) {
+                if (lowerName.endsWith("." + ext.toLowerCase(Locale.ROOT))) {
+                    base = name.substring(0, name.length() - ext.length() - 1);
+                }
+            }
+        }
+        return new File(file.getParentFile(), base + selectedFilter.getExtensions().getFirst().substring(1));
+    }
 }
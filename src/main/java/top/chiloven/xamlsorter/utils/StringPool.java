@@ -0,0 +1,103 @@
+package top.chiloven.xamlsorter.utils;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Project-wide pool of canonical strings, so identical texts and keys are stored once.
+ * The pool only holds weak references: a value disappears from it once no entry uses it any more.
+ * It is striped so that categories decoded in parallel do not contend on a single lock.
+ */
+public class StringPool {
+    private static final int STRIPES = 32;
+
+    @SuppressWarnings("unchecked")
+    private static final WeakHashMap<String, WeakReference<String>>[] stripes = new WeakHashMap[STRIPES];
+    private static final LongAdder lookups = new LongAdder();
+    private static final LongAdder hits = new LongAdder();
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new WeakHashMap<>();
+        }
+    }
+
+    /**
+     * Get the canonical instance of a string, adding it to the pool if it is not there yet.
+     * This method is thread-safe.
+     *
+     * @param value the string to pool, may be null
+     * @return the pooled instance equal to {@code value}, or null if {@code value} is null
+     */
+    public static String intern(String value) {
+        if (value == null) return null;
+        if (value.isEmpty()) return "";
+
+        lookups.increment();
+        WeakHashMap<String, WeakReference<String>> stripe = stripes[(value.hashCode() & 0x7fffffff) % STRIPES];
+        synchronized (stripe) {
+            WeakReference<String> ref = stripe.get(value);
+            String pooled = ref != null ? ref.get() : null;
+            if (pooled != null) {
+                hits.increment();
+                return pooled;
+            }
+            stripe.put(value, new WeakReference<>(value));
+            return value;
+        }
+    }
+
+    /**
+     * Get the current pool statistics.
+     *
+     * @return the number of pooled strings and the lookup counters since startup
+     */
+    public static Stats stats() {
+        int entries = 0;
+        for (WeakHashMap<String, WeakReference<String>> stripe : stripes) {
+            synchronized (stripe) {
+                entries += stripe.size();
+            }
+        }
+        return new Stats(entries, lookups.sum(), hits.sum());
+    }
+
+    /**
+     * Estimate what the pool itself costs on a 64-bit JVM with compressed references: per pooled string one
+     * {@link WeakHashMap} entry (40 bytes), one {@link WeakReference} to the value (32 bytes) and its share of the
+     * hash table (about 8 bytes at the default load factor).
+     *
+     * @param entries the number of pooled strings
+     * @return the estimated size in bytes of the pool's bookkeeping, not counting the strings
+     */
+    public static long estimateOverhead(int entries) {
+        return entries * 80L;
+    }
+
+    /**
+     * Estimate the heap size of a string on a 64-bit JVM with compressed references and compact strings.
+     *
+     * @param value the string
+     * @return the estimated size in bytes of the String object and its backing array
+     */
+    public static long estimateSize(String value) {
+        if (value == null) return 0;
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) <= 0xFF;
+        }
+        long array = 16 + (long) value.length() * (latin1 ? 1 : 2);
+        return 24 + ((array + 7) & ~7L);
+    }
+
+    /**
+     * Pool statistics.
+     *
+     * @param entries the number of strings currently pooled
+     * @param lookups the number of intern calls for non-empty strings
+     * @param hits    the number of intern calls that returned an already pooled instance
+     */
+    public record Stats(int entries, long lookups, long hits) {
+    }
+}
@@ -5,16 +5,23 @@ import javafx.concurrent.Task;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class TaskExecutorService {
     private static final Logger logger = LogManager.getLogger(TaskExecutorService.class);
+    private static final int POOL_SIZE = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
     private static final ExecutorService executorService = Executors.newFixedThreadPool(
-            Math.max(2, Runtime.getRuntime().availableProcessors() - 1),
+            POOL_SIZE,
             r -> {
                 Thread t = new Thread(r);
                 t.setDaemon(true);
@@ -93,6 +100,62 @@ public class TaskExecutorService {
         return future;
     }
 
+    /**
+     * Applies a function to every input in parallel and returns the results in input order.
+     * The calling thread takes part in the work and only waits for inputs already being processed,
+     * so this method is safe to call from inside another background task.
+     *
+     * @param taskName the name of the task, used for logging
+     * @param inputs   the inputs to process
+     * @param mapper   the function to apply to each input
+     * @param <S>      the type of the inputs
+     * @param <T>      the type of the results
+     * @return the results, in the same order as the inputs
+     */
+    @SuppressWarnings("unchecked")
+    public static <S, T> List<T> parallelMap(String taskName, List<S> inputs, Function<S, T> mapper) {
+        int count = inputs.size();
+        Object[] results = new Object[count];
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(count);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        Runnable worker = () -> {
+            int i;
+            while ((i = next.getAndIncrement()) < count) {
+                try {
+                    results[i] = mapper.apply(inputs.get(i));
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+
+        int helpers = Math.min(count, POOL_SIZE) - 1;
+        logger.debug("Parallel task {}: {} inputs, {} helpers", taskName, count, Math.max(helpers, 0));
+        for (int h = 0; h < helpers; h++) {
+            executorService.submit(() -> {
+                Thread.currentThread().setName("XST-" + taskName);
+                worker.run();
+            });
+        }
+        worker.run();
+
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for parallel task: " + taskName, e);
+        }
+        if (failure.get() != null) {
+            logger.error("Failed to execute the parallel task: {}", taskName, failure.get());
+            throw failure.get();
+        }
+        return (List<T>) Arrays.asList(results);
+    }
+
     /**
      * Shuts down the executor service.
      */